@@ -0,0 +1,54 @@
+package org.ifml.eclipse.ui;
+
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.jface.resource.ImageRegistry;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A {@link CommonUi} stand-in for plain JVMs, serving an image registry bound to a given display and in-memory dialog settings.
+ */
+public final class HeadlessCommonUi extends CommonUi {
+
+    private final ImageRegistry imageRegistry;
+
+    private final IDialogSettings dialogSettings = new DialogSettings("Workbench");
+
+    private HeadlessCommonUi(Display display) {
+        imageRegistry = new ImageRegistry(display);
+    }
+
+    /**
+     * Installs a new stand-in as the shared instance returned by {@link CommonUi#getDefault()}.
+     * 
+     * @param display
+     *            the display of the image registry.
+     * @return the installed stand-in.
+     */
+    public static HeadlessCommonUi install(Display display) {
+        HeadlessCommonUi instance = new HeadlessCommonUi(display);
+        CommonUi.setDefault(instance);
+        return instance;
+    }
+
+    /**
+     * Uninstalls this stand-in, disposing the images of its registry.
+     */
+    public void uninstall() {
+        if (CommonUi.getDefault() == this) {
+            CommonUi.setDefault(null);
+        }
+        imageRegistry.dispose();
+    }
+
+    @Override
+    public ImageRegistry getImageRegistry() {
+        return imageRegistry;
+    }
+
+    @Override
+    public IDialogSettings getDialogSettings() {
+        return dialogSettings;
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.ifml.eclipse.ui.benchmarks;
+
+import java.util.Random;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Creates the synthetic images used by benchmarks.
+ */
+public final class BenchmarkImages {
+
+    /** A direct-palette image without alpha channel. */
+    public static final String DIRECT = "DIRECT";
+
+    /** A direct-palette image with alpha channel. */
+    public static final String DIRECT_ALPHA = "DIRECT_ALPHA";
+
+    /** An indexed-palette image with a transparent pixel. */
+    public static final String INDEXED = "INDEXED";
+
+    private static final long SEED = 42;
+
+    private BenchmarkImages() {
+    }
+
+    /**
+     * Creates a square image filled with reproducible pseudo-random pixels.
+     * 
+     * @param kind
+     *            the image kind, one of {@link #DIRECT}, {@link #DIRECT_ALPHA} and {@link #INDEXED}.
+     * @param size
+     *            the image width and height.
+     * @return the image data.
+     */
+    public static ImageData newImageData(String kind, int size) {
+        Random random = new Random(SEED);
+        ImageData data;
+        if (INDEXED.equals(kind)) {
+            RGB[] rgbs = new RGB[256];
+            for (int i = 0; i < rgbs.length; i++) {
+                rgbs[i] = new RGB(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+            }
+            data = new ImageData(size, size, 8, new PaletteData(rgbs));
+            data.transparentPixel = 0;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    data.setPixel(x, y, random.nextInt(rgbs.length));
+                }
+            }
+        } else {
+            data = new ImageData(size, size, 24, new PaletteData(0xFF0000, 0x00FF00, 0x0000FF));
+            boolean alpha = DIRECT_ALPHA.equals(kind);
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    data.setPixel(x, y, random.nextInt(0x1000000));
+                    if (alpha) {
+                        data.setAlpha(x, y, random.nextInt(256));
+                    }
+                }
+            }
+        }
+        return data;
+    }
+
+}
@@ -0,0 +1,120 @@
+package org.ifml.eclipse.ui.benchmarks;
+
+import org.eclipse.swt.SWTError;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.ifml.eclipse.ui.CommonUi;
+import org.ifml.eclipse.ui.HeadlessCommonUi;
+import org.ifml.eclipse.ui.graphics.HeadlessImages;
+import org.ifml.eclipse.ui.graphics.IImageProvider;
+import org.ifml.eclipse.ui.graphics.ImageProviders;
+import org.ifml.eclipse.ui.graphics.Images;
+import org.ifml.eclipse.ui.widgets.Displays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A fixture driving the common UI library in a plain JVM, without launching the workbench.
+ * <p>
+ * The fixture binds a {@link Display} to the calling thread, which requires an X server: on headless machines the JVM must run under
+ * a virtual one ({@code xvfb-run -a java ...}). It then installs a {@link HeadlessCommonUi} as the instance returned by
+ * {@link CommonUi#getDefault()}, so that {@link Images}, {@link Displays} and {@link ImageProviders} behave as in the workbench when
+ * called from that thread. Images of {@link IImageProvider} enumerations must be registered with {@link #registerImages(Class)};
+ * workbench shared images are not available.
+ * <p>
+ * All the methods of a fixture must be called from the thread which started it.
+ */
+public final class HeadlessFixture {
+
+    private final Display display;
+
+    private final boolean ownedDisplay;
+
+    private final HeadlessCommonUi commonUi;
+
+    private Shell shell;
+
+    private HeadlessFixture(Display display, boolean ownedDisplay) {
+        this.display = display;
+        this.ownedDisplay = ownedDisplay;
+        this.commonUi = HeadlessCommonUi.install(display);
+    }
+
+    /**
+     * Starts a fixture on the calling thread, creating its display if required.
+     * 
+     * @return the fixture.
+     * @throws IllegalStateException
+     *             if no display can be created, for example because no X server is available.
+     */
+    public static HeadlessFixture start() {
+        Display display = Display.getCurrent();
+        if (display != null) {
+            return new HeadlessFixture(display, false);
+        }
+        try {
+            return new HeadlessFixture(new Display(), true);
+        } catch (SWTError e) {
+            throw new IllegalStateException("unable to create a display: run the JVM under Xvfb (xvfb-run -a java ...)", e);
+        }
+    }
+
+    /**
+     * Returns the display bound to the fixture thread.
+     * 
+     * @return the display.
+     */
+    public Display getDisplay() {
+        return display;
+    }
+
+    /**
+     * Returns an invisible shell to be used as the parent of dialogs and controls, creating it if required.
+     * 
+     * @return the shell.
+     */
+    public Shell getShell() {
+        if (shell == null || shell.isDisposed()) {
+            shell = new Shell(display);
+        }
+        return shell;
+    }
+
+    /**
+     * Registers the images of an image provider enumeration, loading them from the class path.
+     * 
+     * @param <T>
+     *            the image type.
+     * @param providerClass
+     *            the image provider enumeration.
+     * @return this fixture.
+     */
+    public <T extends Enum<T> & IImageProvider> HeadlessFixture registerImages(Class<T> providerClass) {
+        HeadlessImages.register(providerClass, commonUi.getImageRegistry());
+        return this;
+    }
+
+    /**
+     * Dispatches all the pending events, including the runnables posted with {@link Display#asyncExec(Runnable)}.
+     */
+    public void dispatchEvents() {
+        while (display.readAndDispatch()) {
+            // keep dispatching
+        }
+    }
+
+    /**
+     * Stops this fixture, disposing the registered images, its shell and its display (if created by the fixture).
+     */
+    public void stop() {
+        Preconditions.checkState(!display.isDisposed());
+        if (shell != null && !shell.isDisposed()) {
+            shell.dispose();
+        }
+        commonUi.uninstall();
+        if (ownedDisplay) {
+            display.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.ifml.eclipse.ui.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the common UI library, writing the results in JSON format.
+ */
+public final class UiBenchmarks {
+
+    private static final String DEFAULT_RESULT_FILE = "ui-benchmarks.json";
+
+    private static final String DEFAULT_INCLUDE = "org\\.ifml\\.eclipse\\.ui\\..*Benchmark";
+
+    private UiBenchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     * 
+     * @param args
+     *            the optional result file (default {@value #DEFAULT_RESULT_FILE}) and the optional regular expression selecting the
+     *            benchmarks to run (default all).
+     * @throws RunnerException
+     *             if the benchmarks failed to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = (args.length > 0) ? args[0] : DEFAULT_RESULT_FILE;
+        String include = (args.length > 1) ? args[1] : DEFAULT_INCLUDE;
+        Options options = new OptionsBuilder().include(include).resultFormat(ResultFormatType.JSON).result(resultFile).build();
+        new Runner(options).run();
+    }
+
+}
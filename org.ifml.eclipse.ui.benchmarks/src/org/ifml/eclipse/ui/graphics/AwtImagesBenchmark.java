@@ -0,0 +1,62 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.ifml.eclipse.ui.benchmarks.BenchmarkImages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the conversions and the scaling provided by {@link AwtImages}. Does not need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AwtImagesBenchmark {
+
+    @Param({ "16", "64", "256" })
+    public int size;
+
+    @Param({ BenchmarkImages.DIRECT, BenchmarkImages.DIRECT_ALPHA, BenchmarkImages.INDEXED })
+    public String kind;
+
+    private ImageData imageData;
+
+    private BufferedImage bufferedImage;
+
+    @Setup
+    public void setUp() {
+        imageData = BenchmarkImages.newImageData(kind, size);
+        bufferedImage = AwtImages.toBufferedImage(imageData);
+    }
+
+    @Benchmark
+    public BufferedImage toBufferedImage() {
+        return AwtImages.toBufferedImage(imageData);
+    }
+
+    @Benchmark
+    public ImageData toImageData() {
+        return AwtImages.toImageData(bufferedImage);
+    }
+
+    @Benchmark
+    public BufferedImage newResizedImage() {
+        return AwtImages.newResizedImage(bufferedImage, size / 2, size / 2);
+    }
+
+}
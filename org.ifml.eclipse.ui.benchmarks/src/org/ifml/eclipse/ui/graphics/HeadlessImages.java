@@ -0,0 +1,40 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.net.URL;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ImageRegistry;
+
+/**
+ * Registers the images of {@link IImageProvider} enumerations when the library runs outside of an OSGi framework, where
+ * {@link ImageProviders} cannot locate the bundle declaring the images.
+ */
+public final class HeadlessImages {
+
+    private HeadlessImages() {
+    }
+
+    /**
+     * Registers the images of all the constants of an image provider enumeration, loading them from the class path using the paths
+     * returned by {@link ImageProviders#getPath(Enum)}. Constants whose image is not found are ignored.
+     * 
+     * @param <T>
+     *            the image type.
+     * @param providerClass
+     *            the image provider enumeration.
+     * @param registry
+     *            the registry served as {@link org.ifml.eclipse.ui.CommonUi#getImageRegistry()}.
+     */
+    public static <T extends Enum<T> & IImageProvider> void register(Class<T> providerClass, ImageRegistry registry) {
+        for (T imageProvider : providerClass.getEnumConstants()) {
+            String key = ImageProviders.getKey(imageProvider, false);
+            if (registry.getDescriptor(key) == null) {
+                URL url = providerClass.getResource("/" + ImageProviders.getPath(imageProvider));
+                if (url != null) {
+                    registry.put(key, ImageDescriptor.createFromURL(url));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.graphics.Image;
+import org.ifml.eclipse.ui.benchmarks.HeadlessFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the image lookups of {@link ImageProviders} and the registry keys and paths they compute. Only the lookups need a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageProvidersBenchmark {
+
+    @Benchmark
+    public String key() {
+        return ImageProviders.getKey(CommonImage.APPLICATION, false);
+    }
+
+    @Benchmark
+    public String disabledKey() {
+        return ImageProviders.getKey(CommonImage.APPLICATION, true);
+    }
+
+    @Benchmark
+    public String compositeKey() {
+        return ImageProviders.getCompositeKey(CommonImage.APPLICATION, CommonImage.NEW_OVR, null, CommonImage.APPLICATION_OVR, null,
+                false);
+    }
+
+    @Benchmark
+    public String path() {
+        return ImageProviders.getPath(CommonImage.APPLICATION_OVR);
+    }
+
+    @Benchmark
+    public Image get(FixtureState state) {
+        return ImageProviders.get(CommonImage.APPLICATION);
+    }
+
+    @Benchmark
+    public Image getOverlayed(FixtureState state) {
+        return ImageProviders.get(CommonImage.APPLICATION, CommonImage.NEW_OVR, null, CommonImage.APPLICATION_OVR, null);
+    }
+
+    /**
+     * Holds the fixture serving the image registry.
+     */
+    @State(Scope.Thread)
+    public static class FixtureState {
+
+        private HeadlessFixture fixture;
+
+        @Setup
+        public void setUp() {
+            fixture = HeadlessFixture.start().registerImages(CommonImage.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            fixture.stop();
+        }
+
+    }
+
+}
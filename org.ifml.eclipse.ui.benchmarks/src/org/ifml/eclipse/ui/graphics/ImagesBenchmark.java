@@ -0,0 +1,96 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.viewers.DecorationOverlayIcon;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.ifml.eclipse.ui.benchmarks.BenchmarkImages;
+import org.ifml.eclipse.ui.benchmarks.HeadlessFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the composite image descriptors created by {@link Images} and the overlay composites created by {@link ImageProviders}.
+ * Only the overlay benchmark needs a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImagesBenchmark {
+
+    private static final int ICON_SIZE = 16;
+
+    @Param({ "16", "64", "256" })
+    public int size;
+
+    private ImageDescriptor baseDescr;
+
+    private ImageDescriptor overlayDescr;
+
+    @Setup
+    public void setUp() {
+        baseDescr = ImageDescriptor.createFromImageData(BenchmarkImages.newImageData(BenchmarkImages.DIRECT_ALPHA, size));
+        overlayDescr = ImageDescriptor.createFromImageData(BenchmarkImages.newImageData(BenchmarkImages.INDEXED, ICON_SIZE / 2));
+    }
+
+    @Benchmark
+    public ImageData resizedDescriptor() {
+        return Images.newResizedDescriptor(baseDescr, ICON_SIZE, ICON_SIZE).getImageData();
+    }
+
+    @Benchmark
+    public ImageData expandedDescriptor() {
+        return Images.newExpandedDescriptor(baseDescr, size * 2, size * 2).getImageData();
+    }
+
+    @Benchmark
+    public ImageData disabledDescriptor() {
+        return Images.newDisabledDescriptor(baseDescr).getImageData();
+    }
+
+    @Benchmark
+    public ImageData overlayDescriptor(DisplayState state) {
+        return new DecorationOverlayIcon(state.baseImage, new ImageDescriptor[] { overlayDescr, null, null, overlayDescr })
+                .getImageData();
+    }
+
+    /**
+     * Holds the display and the base image of the overlay benchmark.
+     */
+    @State(Scope.Thread)
+    public static class DisplayState {
+
+        private HeadlessFixture fixture;
+
+        private Image baseImage;
+
+        @Setup
+        public void setUp() {
+            fixture = HeadlessFixture.start();
+            baseImage = new Image(fixture.getDisplay(), BenchmarkImages.newImageData(BenchmarkImages.DIRECT_ALPHA, ICON_SIZE));
+        }
+
+        @TearDown
+        public void tearDown() {
+            baseImage.dispose();
+            fixture.stop();
+        }
+
+    }
+
+}
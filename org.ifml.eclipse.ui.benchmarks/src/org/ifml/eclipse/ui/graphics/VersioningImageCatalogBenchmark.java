@@ -0,0 +1,114 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.swt.graphics.Image;
+import org.ifml.eclipse.ui.benchmarks.BenchmarkImages;
+import org.ifml.eclipse.ui.benchmarks.HeadlessFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the lookups and the registrations of {@link VersioningImageCatalog}, compared with {@link ImageCatalog}. Needs a display.
+ * <p>
+ * Registrations use keys never fetched from a separate catalog, replaced every {@value #KEY_COUNT} registrations, since registering a
+ * key again in a versioning catalog creates the image of the previous version.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersioningImageCatalogBenchmark {
+
+    private static final int KEY_COUNT = 1024;
+
+    @Param({ "versioning", "default" })
+    public String catalogKind;
+
+    @Param({ "16", "64", "256" })
+    public int size;
+
+    private HeadlessFixture fixture;
+
+    private IImageCatalog catalog;
+
+    private IImageCatalog putCatalog;
+
+    private ImageDescriptor descriptor;
+
+    private final String[] keys = new String[KEY_COUNT];
+
+    private final String[] unusedKeys = new String[KEY_COUNT];
+
+    private int next;
+
+    private int nextUnused;
+
+    @Setup
+    public void setUp() {
+        fixture = HeadlessFixture.start();
+        catalog = newCatalog();
+        putCatalog = newCatalog();
+        descriptor = ImageDescriptor.createFromImageData(BenchmarkImages.newImageData(BenchmarkImages.DIRECT_ALPHA, size));
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "org.ifml.eclipse.ui.graphics.BenchmarkImage.IMAGE_" + i;
+            catalog.put(keys[i], descriptor);
+            catalog.get(keys[i]); // creates the image
+            unusedKeys[i] = "unused." + keys[i];
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispose(catalog);
+        dispose(putCatalog);
+        fixture.stop();
+    }
+
+    @Benchmark
+    public Image get() {
+        return catalog.get(keys[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public ImageDescriptor getDescriptor() {
+        return catalog.getDescriptor(keys[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public void putUnused() {
+        if (nextUnused == KEY_COUNT) {
+            dispose(putCatalog);
+            putCatalog = newCatalog();
+            nextUnused = 0;
+        }
+        putCatalog.put(unusedKeys[nextUnused++], descriptor); // a key never registered nor fetched: no image is created
+    }
+
+    private IImageCatalog newCatalog() {
+        return "versioning".equals(catalogKind) ? new VersioningImageCatalog(fixture.getDisplay()) : new ImageCatalog(
+                fixture.getDisplay());
+    }
+
+    private static void dispose(IImageCatalog catalog) {
+        if (catalog instanceof VersioningImageCatalog) {
+            ((VersioningImageCatalog) catalog).dispose();
+        } else {
+            ((ImageCatalog) catalog).dispose();
+        }
+    }
+
+}
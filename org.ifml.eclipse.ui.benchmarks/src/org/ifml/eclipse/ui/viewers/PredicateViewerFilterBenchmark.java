@@ -0,0 +1,123 @@
+package org.ifml.eclipse.ui.viewers;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Benchmarks the filters built by {@link PredicateViewerFilterBuilder} on synthetic model elements of several types, evaluated
+ * sequentially and in parallel. Does not need a display.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredicateViewerFilterBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int elementCount;
+
+    @Param({ "sequential", "parallel" })
+    public String mode;
+
+    private Object[] elements;
+
+    private ViewerFilter filter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        elements = new Object[elementCount];
+        for (int i = 0; i < elementCount; i++) {
+            String name = "element" + random.nextInt();
+            switch (i % 4) {
+            case 0:
+                elements[i] = new Element(name);
+                break;
+            case 1:
+                elements[i] = new NamedElement(name);
+                break;
+            case 2:
+                elements[i] = new ViewElement(name);
+                break;
+            default:
+                elements[i] = name; // not filtered by any predicate
+            }
+        }
+        PredicateViewerFilterBuilder<Element> builder = new PredicateViewerFilterBuilder<Element>();
+        builder.predicate(Element.class, new NamePredicate(3));
+        builder.predicate(NamedElement.class, new NamePredicate(5));
+        builder.predicate(ViewElement.class, new NamePredicate(7));
+        if ("parallel".equals(mode)) {
+            builder.parallel();
+        }
+        filter = builder.build();
+    }
+
+    @Benchmark
+    public Object[] filter() {
+        return filter.filter(null, (Object) null, elements);
+    }
+
+    private static class Element {
+
+        final String name;
+
+        Element(String name) {
+            this.name = name;
+        }
+
+    }
+
+    private static class NamedElement extends Element {
+
+        NamedElement(String name) {
+            super(name);
+        }
+
+    }
+
+    private static final class ViewElement extends NamedElement {
+
+        ViewElement(String name) {
+            super(name);
+        }
+
+    }
+
+    private static final class NamePredicate implements Predicate<Element> {
+
+        private final int modulus;
+
+        NamePredicate(int modulus) {
+            this.modulus = modulus;
+        }
+
+        @Override
+        public boolean apply(Element input) {
+            int hash = 0;
+            for (int i = 0; i < input.name.length(); i++) { // simulates some model navigation
+                hash = 31 * hash + Character.toLowerCase(input.name.charAt(i));
+            }
+            return (hash % modulus) != 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,161 @@
+package org.ifml.eclipse.ui.widgets;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ScrolledComposite;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.ScrollBar;
+import org.ifml.eclipse.ui.benchmarks.HeadlessFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the redirection of wheel events installed by {@link Controls#addRedirectWheelListener(ScrolledComposite, boolean)} on
+ * forms with thousands of controls, compared with a listener added to every descendant. Measures the installation on a new form and
+ * the dispatch of wheel events to a control of the form and to a control outside it. Needs a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WheelRedirectionBenchmark {
+
+    private static final int NESTING_DEPTH = 6;
+
+    private static final int CONTROLS_PER_SECTION = 50;
+
+    @Param({ "1000", "5000" })
+    public int controlCount;
+
+    @Param({ "filter", "perChild" })
+    public String mode;
+
+    private HeadlessFixture fixture;
+
+    private ScrolledComposite scrolledComposite;
+
+    private Control inside;
+
+    private Control outside;
+
+    private final Event event = new Event();
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fixture = HeadlessFixture.start();
+        scrolledComposite = createForm(fixture.getShell());
+        install(scrolledComposite);
+        Composite content = (Composite) scrolledComposite.getContent();
+        inside = getLastLeaf(content);
+        outside = new Label(fixture.getShell(), SWT.NONE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public void installAndDispose() {
+        ScrolledComposite form = createForm(fixture.getShell());
+        install(form);
+        form.dispose();
+    }
+
+    @Benchmark
+    public int wheelInside() {
+        return wheel(inside);
+    }
+
+    @Benchmark
+    public int wheelOutside() {
+        return wheel(outside);
+    }
+
+    private int wheel(Control control) {
+        event.count = ((next++ & 1) == 0) ? 3 : -3; // keeps the selection bounded
+        control.notifyListeners(SWT.MouseVerticalWheel, event);
+        return scrolledComposite.getVerticalBar().getSelection();
+    }
+
+    private ScrolledComposite createForm(Composite parent) {
+        ScrolledComposite form = new ScrolledComposite(parent, SWT.V_SCROLL | SWT.H_SCROLL);
+        Composite content = new Composite(form, SWT.NONE);
+        for (int i = 0; i < controlCount / CONTROLS_PER_SECTION; i++) {
+            Composite section = content;
+            for (int depth = 0; depth < NESTING_DEPTH; depth++) {
+                section = new Composite(section, SWT.NONE);
+            }
+            for (int j = 0; j < CONTROLS_PER_SECTION; j++) {
+                new Label(section, SWT.NONE).setText("Property " + j);
+            }
+        }
+        form.setContent(content);
+        form.setSize(400, 300);
+        content.setSize(400, 20 * controlCount);
+        return form;
+    }
+
+    private void install(ScrolledComposite form) {
+        if ("filter".equals(mode)) {
+            Controls.addRedirectWheelListener(form, true);
+        } else {
+            addPerChildListener(form, new PerChildWheelListener(form));
+        }
+    }
+
+    private static Control getLastLeaf(Composite composite) {
+        Control[] children = composite.getChildren();
+        Control last = children[children.length - 1];
+        return (last instanceof Composite) ? getLastLeaf((Composite) last) : last;
+    }
+
+    /** Adds a listener to all the descendants of a composite, as the redirection did before using a display filter. */
+    private static void addPerChildListener(Composite parent, Listener wheelListener) {
+        for (Control child : parent.getChildren()) {
+            child.addListener(SWT.MouseVerticalWheel, wheelListener);
+            if (child instanceof Composite) {
+                addPerChildListener((Composite) child, wheelListener);
+            }
+        }
+    }
+
+    private static final class PerChildWheelListener implements Listener {
+
+        private final ScrolledComposite scrolledComposite;
+
+        PerChildWheelListener(ScrolledComposite scrolledComposite) {
+            this.scrolledComposite = scrolledComposite;
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+            ScrollBar bar = scrolledComposite.getVerticalBar();
+            bar.setSelection(bar.getSelection() - event.count * bar.getIncrement());
+            for (Listener listener : bar.getListeners(SWT.Selection)) {
+                listener.handleEvent(event);
+            }
+        }
+
+    }
+
+}
@@ -1,6 +1,14 @@
 package org.ifml.eclipse.ui;
 
+import java.io.File;
+
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.UiMetrics;
+import org.ifml.eclipse.ui.debug.UiStallDetector;
+import org.ifml.eclipse.ui.dialogs.Dialogs;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -18,14 +26,36 @@ public class CommonUi extends AbstractUIPlugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
+        Dialogs.enableBackgroundSave(this);
+        if (UiMetrics.isEnabled()) {
+            UiMetrics.startExport(getStateLocation().append(UiMetrics.EXPORT_FILE_NAME).toFile());
+        }
+        if (UiStallDetector.isEnabled() && PlatformUI.isWorkbenchRunning()) {
+            final Display display = PlatformUI.getWorkbench().getDisplay();
+            final File stallsFile = getStateLocation().append(UiStallDetector.EXPORT_FILE_NAME).toFile();
+            display.asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    UiStallDetector.install(display, stallsFile);
+                }
+            });
+        }
     }
 
     @Override
     public void stop(BundleContext context) throws Exception {
         plugin = null;
+        UiStallDetector.uninstall();
+        UiMetrics.stopExport();
+        CommonUiDebug.flush();
         super.stop(context);
     }
 
+    @Override
+    protected void saveDialogSettings() {
+        Dialogs.saveDialogSettings(this); // the dialog settings are only accessed through Dialogs, which saves them in background
+    }
+
     /**
      * Returns the shared instance
      * 
@@ -35,4 +65,15 @@ public class CommonUi extends AbstractUIPlugin {
         return plugin;
     }
 
+    /**
+     * Replaces the shared instance, so that the library can be driven outside of a running workbench (for example by benchmarks and
+     * load tests).
+     * 
+     * @param instance
+     *            the new shared instance, or {@code null}.
+     */
+    static void setDefault(CommonUi instance) {
+        plugin = instance;
+    }
+
 }
@@ -0,0 +1,289 @@
+package org.ifml.eclipse.ui;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * Provides the pool of worker threads used by the library to split CPU-bound work (filtering, sorting, label computation) in
+ * parallel chunks.
+ * <p>
+ * The pool has one daemon thread per available processor and is created on first use. Tasks running on the pool must not block
+ * waiting for other tasks of the pool: {@link #invokeChunks(int, int, RangeTask)} and {@link #sort(Object[], Comparator)} run
+ * sequentially when called from a worker thread.
+ */
+public final class Workers {
+
+    /** The number of worker threads. */
+    public static final int PARALLELISM = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private static final int MIN_SORT_RUN_SIZE = 2048;
+
+    private static final ThreadLocal<Boolean> WORKER_THREAD = new ThreadLocal<Boolean>();
+
+    private Workers() {
+    }
+
+    /**
+     * Returns whether the current thread is a thread of the worker pool.
+     * 
+     * @return {@code true} if the current thread is a worker thread.
+     */
+    public static boolean isWorkerThread() {
+        return WORKER_THREAD.get() != null;
+    }
+
+    /**
+     * Returns the shared worker pool.
+     * 
+     * @return the worker pool.
+     */
+    public static ExecutorService getPool() {
+        return PoolHolder.POOL;
+    }
+
+    /**
+     * Returns a factory of daemon threads, named with a prefix followed by a progressive number.
+     * 
+     * @param namePrefix
+     *            the prefix of the thread names.
+     * @return the thread factory.
+     */
+    public static ThreadFactory newThreadFactory(final String namePrefix) {
+        return new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, namePrefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        };
+    }
+
+    /**
+     * Runs a task over the range {@code [0, size)} split in chunks, evaluating the chunks in parallel and waiting for their completion.
+     * The calling thread evaluates the first chunk itself; if it is a worker thread, it evaluates the whole range, since waiting for
+     * other tasks of the pool could starve it.
+     * 
+     * @param size
+     *            the size of the range.
+     * @param minChunkSize
+     *            the minimum number of indices of a chunk.
+     * @param task
+     *            the task.
+     * @throws RuntimeException
+     *             if the task failed on a chunk (the failure is propagated) or if the calling thread was interrupted.
+     */
+    public static void invokeChunks(int size, int minChunkSize, RangeTask task) {
+        Preconditions.checkArgument(minChunkSize > 0);
+        int chunkSize = getChunkSize(size, minChunkSize);
+        if (size <= chunkSize || PARALLELISM == 1 || isWorkerThread()) {
+            task.run(0, size);
+            return;
+        }
+        invokeParallelChunks(size, chunkSize, task, new NullProgressMonitor());
+    }
+
+    /**
+     * Runs a task over the range {@code [0, size)} split in chunks, as {@link #invokeChunks(int, int, RangeTask)}. The progress monitor
+     * is notified, and checked for cancellation, in the calling thread after each chunk; once cancelled, the chunks not yet started are
+     * skipped.
+     * 
+     * @param size
+     *            the size of the range.
+     * @param minChunkSize
+     *            the minimum number of indices of a chunk.
+     * @param task
+     *            the task.
+     * @param progressMonitor
+     *            the progress monitor, worked once for each index.
+     * @return {@code true} if the task ran on the whole range, {@code false} if cancelled.
+     * @throws RuntimeException
+     *             if the task failed on a chunk (the failure is propagated) or if the calling thread was interrupted.
+     */
+    public static boolean invokeChunks(int size, int minChunkSize, RangeTask task, IProgressMonitor progressMonitor) {
+        Preconditions.checkArgument(minChunkSize > 0);
+        int chunkSize = getChunkSize(size, minChunkSize);
+        if (size <= chunkSize || PARALLELISM == 1 || isWorkerThread()) {
+            for (int from = 0; from < size; from += chunkSize) {
+                if (progressMonitor.isCanceled()) {
+                    return false;
+                }
+                int to = Math.min(from + chunkSize, size);
+                task.run(from, to);
+                progressMonitor.worked(to - from);
+            }
+            return true;
+        }
+        return invokeParallelChunks(size, chunkSize, task, progressMonitor);
+    }
+
+    private static int getChunkSize(int size, int minChunkSize) {
+        return Math.max(minChunkSize, (size + PARALLELISM * CHUNKS_PER_WORKER - 1) / (PARALLELISM * CHUNKS_PER_WORKER));
+    }
+
+    /** Runs the chunks of a range larger than a chunk, the first one in the calling thread and the others on the pool. */
+    private static boolean invokeParallelChunks(int size, int chunkSize, final RangeTask task, IProgressMonitor progressMonitor) {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        List<Future<?>> futures = Lists.newArrayList();
+        for (int from = chunkSize; from < size; from += chunkSize) {
+            final int chunkFrom = from;
+            final int chunkTo = Math.min(from + chunkSize, size);
+            futures.add(getPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (!cancelled.get()) {
+                        task.run(chunkFrom, chunkTo);
+                    }
+                }
+            }));
+        }
+        try {
+            task.run(0, chunkSize);
+            progressMonitor.worked(chunkSize);
+            for (int chunk = 0; chunk < futures.size(); chunk++) {
+                if (progressMonitor.isCanceled()) {
+                    return false;
+                }
+                futures.get(chunk).get();
+                progressMonitor.worked(Math.min(chunkSize, size - (chunk + 1) * chunkSize));
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            cancelled.set(true);
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Sorts an array, sorting runs of the array in parallel and then merging them in parallel rounds. As {@link Arrays#sort(Object[],
+     * Comparator)}, the sort is stable; the comparator must be thread-safe. Called from a worker thread, the array is sorted
+     * sequentially.
+     * 
+     * @param <T>
+     *            the type parameter.
+     * @param array
+     *            the array to be sorted.
+     * @param comparator
+     *            the comparator.
+     * @throws RuntimeException
+     *             if the comparator failed (the failure is propagated) or if the calling thread was interrupted.
+     */
+    public static <T> void sort(T[] array, final Comparator<? super T> comparator) {
+        final int size = array.length;
+        final int runSize = Math.max(MIN_SORT_RUN_SIZE, (size + PARALLELISM - 1) / PARALLELISM);
+        if (size <= runSize || PARALLELISM == 1 || isWorkerThread()) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+        T[] source = array;
+        T[] target = array.clone();
+        final T[] runs = source;
+        invokeChunks((size + runSize - 1) / runSize, 1, new RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int run = from; run < to; run++) {
+                    Arrays.sort(runs, run * runSize, Math.min((run + 1) * runSize, size), comparator);
+                }
+            }
+        });
+        for (int width = runSize; width < size; width *= 2) {
+            final T[] mergeSource = source;
+            final T[] mergeTarget = target;
+            final int runWidth = width;
+            invokeChunks((size + 2 * width - 1) / (2 * width), 1, new RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for (int pair = from; pair < to; pair++) {
+                        int low = pair * 2 * runWidth;
+                        merge(mergeSource, mergeTarget, low, Math.min(low + runWidth, size), Math.min(low + 2 * runWidth, size),
+                                comparator);
+                    }
+                }
+            });
+            source = mergeTarget;
+            target = mergeSource;
+        }
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, size);
+        }
+    }
+
+    private static <T> void merge(T[] source, T[] target, int low, int middle, int high, Comparator<? super T> comparator) {
+        int left = low;
+        int right = middle;
+        for (int i = low; i < high; i++) {
+            if ((right >= high) || ((left < middle) && (comparator.compare(source[left], source[right]) <= 0))) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    /**
+     * A task working on a range of indices.
+     */
+    public interface RangeTask {
+
+        /**
+         * Runs this task on a range of indices.
+         * 
+         * @param from
+         *            the first index (inclusive).
+         * @param to
+         *            the last index (exclusive).
+         */
+        void run(int from, int to);
+
+    }
+
+    private static final class PoolHolder {
+
+        private static final ExecutorService POOL = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+
+            private final ThreadFactory delegate = newThreadFactory("IFML UI Worker ");
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                return delegate.newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        WORKER_THREAD.set(Boolean.TRUE);
+                        r.run();
+                    }
+                });
+            }
+
+        });
+
+    }
+
+}
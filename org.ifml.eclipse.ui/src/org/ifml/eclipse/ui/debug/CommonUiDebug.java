@@ -1,5 +1,7 @@
 package org.ifml.eclipse.ui.debug;
 
+import java.util.Locale;
+
 import javax.annotation.Nullable;
 
 import org.ifml.eclipse.core.runtime.Debugs;
@@ -7,6 +9,15 @@ import org.ifml.eclipse.core.runtime.IDebug;
 
 /**
  * Provides debug facilities for the common UI plug-in.
+ * <p>
+ * Debug messages are not formatted by the calling thread: they are queued in a lock-free ring buffer and written by a background
+ * thread, so arguments should be immutable (or at least have a stable string representation). When a debug is disabled each
+ * {@code debug} method costs a single field read; the fixed-arity overloads should be preferred to the varargs one since they do not
+ * allocate any array at the call site. Callers passing primitive arguments should guard the call with {@link #isEnabled()} to avoid
+ * boxing.
+ * <p>
+ * Each debug is also a category of the latency metrics collected by {@link UiMetrics}, which are enabled independently through the
+ * {@code org.ifml.eclipse.ui/metrics/<category>} options.
  */
 public enum CommonUiDebug implements IDebug {
 
@@ -25,16 +36,103 @@ public enum CommonUiDebug implements IDebug {
     /** Debug for widgets. */
     WIDGET;
 
+    private static final Object[] NO_ARGS = new Object[0];
+
     private final boolean enabled = Debugs.isDebugEnabled(this);
 
+    private final boolean metricsEnabled = DebugOptions.isEnabled("metrics/" + name().toLowerCase(Locale.ENGLISH));
+
     @Override
     public boolean isEnabled() {
         return enabled;
     }
 
+    /**
+     * Returns whether the latency metrics of this category are collected.
+     * 
+     * @return {@code true} if metrics are enabled.
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Writes a debug message.
+     * 
+     * @param message
+     *            the message.
+     */
+    public void debug(@Nullable String message) {
+        if (enabled) {
+            DebugRecordBuffer.post(this, message, NO_ARGS);
+        }
+    }
+
+    /**
+     * Writes a debug message with one argument.
+     * 
+     * @param template
+     *            the message template.
+     * @param arg0
+     *            the first argument.
+     */
+    public void debug(@Nullable String template, @Nullable Object arg0) {
+        if (enabled) {
+            DebugRecordBuffer.post(this, template, new Object[] { arg0 });
+        }
+    }
+
+    /**
+     * Writes a debug message with two arguments.
+     * 
+     * @param template
+     *            the message template.
+     * @param arg0
+     *            the first argument.
+     * @param arg1
+     *            the second argument.
+     */
+    public void debug(@Nullable String template, @Nullable Object arg0, @Nullable Object arg1) {
+        if (enabled) {
+            DebugRecordBuffer.post(this, template, new Object[] { arg0, arg1 });
+        }
+    }
+
+    /**
+     * Writes a debug message with three arguments.
+     * 
+     * @param template
+     *            the message template.
+     * @param arg0
+     *            the first argument.
+     * @param arg1
+     *            the second argument.
+     * @param arg2
+     *            the third argument.
+     */
+    public void debug(@Nullable String template, @Nullable Object arg0, @Nullable Object arg1, @Nullable Object arg2) {
+        if (enabled) {
+            DebugRecordBuffer.post(this, template, new Object[] { arg0, arg1, arg2 });
+        }
+    }
+
     @Override
     public void debug(@Nullable String template, @Nullable Object... args) {
-        Debugs.debug(this, template, args);
+        if (enabled) {
+            DebugRecordBuffer.post(this, template, (args != null) ? args : NO_ARGS);
+        }
+    }
+
+    /**
+     * Synchronously writes all the pending debug messages. Does nothing if all the debugs are disabled.
+     */
+    public static void flush() {
+        for (CommonUiDebug debug : values()) {
+            if (debug.enabled) {
+                DebugRecordBuffer.flush();
+                return;
+            }
+        }
     }
 
 }
@@ -0,0 +1,76 @@
+package org.ifml.eclipse.ui.debug;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Provides access to the options controlling the diagnostic facilities of the common UI plug-in.
+ * <p>
+ * An option is read from the system properties first and then from the platform debug options (see the {@code .options} file of
+ * this plug-in), so that it can also be set when the plug-in runs outside of an OSGi framework.
+ */
+final class DebugOptions {
+
+    /** The prefix shared by all the options of this plug-in. */
+    static final String PREFIX = "org.ifml.eclipse.ui/";
+
+    private DebugOptions() {
+    }
+
+    /**
+     * Returns the value of an option.
+     * 
+     * @param option
+     *            the option name, relative to {@link #PREFIX}.
+     * @return the option value, or {@code null} if not set.
+     */
+    @Nullable
+    static String get(String option) {
+        String key = PREFIX + option;
+        String value = System.getProperty(key);
+        if (value != null) {
+            return value;
+        }
+        try {
+            return Platform.getDebugOption(key);
+        } catch (RuntimeException e) {
+            return null; // not running inside the platform
+        } catch (LinkageError e) {
+            return null; // not running inside the platform
+        }
+    }
+
+    /**
+     * Returns the value of a boolean option.
+     * 
+     * @param option
+     *            the option name, relative to {@link #PREFIX}.
+     * @return {@code true} if the option is set to {@code true}.
+     */
+    static boolean isEnabled(String option) {
+        return Boolean.parseBoolean(get(option));
+    }
+
+    /**
+     * Returns the value of a numeric option.
+     * 
+     * @param option
+     *            the option name, relative to {@link #PREFIX}.
+     * @param defaultValue
+     *            the value returned if the option is not set or is not a number.
+     * @return the option value.
+     */
+    static long getLong(String option, long defaultValue) {
+        String value = get(option);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package org.ifml.eclipse.ui.debug;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.ifml.eclipse.core.runtime.Debugs;
+import org.ifml.eclipse.core.runtime.IDebug;
+
+/**
+ * A bounded multiple-producer, single-consumer ring buffer of debug records.
+ * <p>
+ * Producers never lock nor block: they claim a slot with a single atomic increment and publish the record into it. Records are
+ * formatted and written through {@link Debugs} by a daemon thread, started when this class is first used (that is, when the first
+ * record of an enabled debug is posted). If producers are faster than the writer, the oldest records are overwritten and reported as
+ * dropped.
+ */
+final class DebugRecordBuffer {
+
+    private static final int CAPACITY = 1 << 12;
+
+    private static final int MASK = CAPACITY - 1;
+
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final DebugRecordBuffer INSTANCE = new DebugRecordBuffer();
+
+    static {
+        Thread writer = new Thread("IFML UI Debug Writer") {
+            @Override
+            public void run() {
+                while (true) {
+                    INSTANCE.drain();
+                    LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+                }
+            }
+        };
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    private final AtomicReferenceArray<Record> slots = new AtomicReferenceArray<Record>(CAPACITY);
+
+    private final AtomicLong head = new AtomicLong();
+
+    /** The sequence of the next record to write, guarded by {@code this}. */
+    private long tail;
+
+    private DebugRecordBuffer() {
+    }
+
+    /**
+     * Enqueues a debug record.
+     *
+     * @param debug
+     *            the debug.
+     * @param template
+     *            the message template.
+     * @param args
+     *            the template arguments.
+     */
+    static void post(IDebug debug, String template, Object[] args) {
+        long sequence = INSTANCE.head.getAndIncrement();
+        INSTANCE.slots.lazySet((int) (sequence & MASK), new Record(sequence, debug, template, args));
+    }
+
+    /**
+     * Synchronously writes all the published records.
+     */
+    static void flush() {
+        INSTANCE.drain();
+    }
+
+    private synchronized void drain() {
+        long limit = head.get();
+        long dropped = 0;
+        if (limit - tail > CAPACITY) {
+            dropped = limit - CAPACITY - tail;
+            tail = limit - CAPACITY;
+        }
+        while (tail < limit) {
+            int index = (int) (tail & MASK);
+            Record record = slots.get(index);
+            if ((record == null) || (record.sequence < tail)) {
+                break; // claimed but not yet published: retry on the next drain
+            }
+            if (record.sequence == tail) {
+                slots.compareAndSet(index, record, null);
+                write(record.debug, record.template, record.args);
+            } else {
+                dropped++; // overwritten while draining
+            }
+            tail++;
+        }
+        if (dropped > 0) {
+            write(CommonUiDebug.BASE, "%s debug records dropped", new Object[] { dropped });
+        }
+    }
+
+    private static void write(IDebug debug, String template, Object[] args) {
+        try {
+            Debugs.debug(debug, template, args);
+        } catch (RuntimeException e) {
+            // a faulty toString() must not kill the writer
+        }
+    }
+
+    private static final class Record {
+
+        private final long sequence;
+
+        private final IDebug debug;
+
+        private final String template;
+
+        private final Object[] args;
+
+        private Record(long sequence, IDebug debug, String template, Object[] args) {
+            this.sequence = sequence;
+            this.debug = debug;
+            this.template = template;
+            this.args = args;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.ifml.eclipse.ui.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the occurrences of an event.
+ * <p>
+ * Counters are obtained from {@link UiMetrics#counter(CommonUiDebug, String)}. When the metrics of the counter category are disabled,
+ * {@link #increment()} costs a single field read.
+ */
+public final class OperationCounter {
+
+    private final CommonUiDebug category;
+
+    private final String name;
+
+    private final boolean enabled;
+
+    private final AtomicLong count = new AtomicLong();
+
+    OperationCounter(CommonUiDebug category, String name, boolean enabled) {
+        this.category = category;
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the category of this counter.
+     * 
+     * @return the category.
+     */
+    public CommonUiDebug getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the name of the counted event.
+     * 
+     * @return the event name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counts an occurrence of the event.
+     */
+    public void increment() {
+        if (enabled) {
+            count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of occurrences counted so far.
+     * 
+     * @return the count.
+     */
+    public long get() {
+        return count.get();
+    }
+
+}
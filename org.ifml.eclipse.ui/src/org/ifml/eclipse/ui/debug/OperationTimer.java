@@ -0,0 +1,91 @@
+package org.ifml.eclipse.ui.debug;
+
+/**
+ * Measures the latency of an operation, recording it in a {@link LatencyHistogram}.
+ * <p>
+ * Timers are obtained from {@link UiMetrics#timer(CommonUiDebug, String)} and are usually stored in static fields. When the metrics
+ * of the timer category are disabled, both {@link #start()} and {@link #stop(long)} cost a single field read:
+ * 
+ * <pre>
+ * long start = TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     TIMER.stop(start);
+ * }
+ * </pre>
+ */
+public final class OperationTimer {
+
+    private final CommonUiDebug category;
+
+    private final String name;
+
+    private final boolean enabled;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    OperationTimer(CommonUiDebug category, String name, boolean enabled) {
+        this.category = category;
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the category of this timer.
+     * 
+     * @return the category.
+     */
+    public CommonUiDebug getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the name of the measured operation.
+     * 
+     * @return the operation name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns whether this timer records latencies.
+     * 
+     * @return {@code true} if this timer is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts measuring an operation.
+     * 
+     * @return the start time to be passed to {@link #stop(long)}.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops measuring an operation, recording its latency.
+     * 
+     * @param start
+     *            the value returned by {@link #start()}.
+     */
+    public void stop(long start) {
+        if (enabled) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns a point-in-time copy of the latencies recorded so far.
+     * 
+     * @return the snapshot.
+     */
+    public LatencyHistogram.Snapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+}
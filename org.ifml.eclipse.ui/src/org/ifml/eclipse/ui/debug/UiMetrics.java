@@ -0,0 +1,214 @@
+package org.ifml.eclipse.ui.debug;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.ifml.eclipse.core.runtime.Logs;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+
+/**
+ * A registry of latency timers and counters measuring the hot-path operations of the common UI plug-in.
+ * <p>
+ * Metrics are enabled per {@link CommonUiDebug} category through the {@code org.ifml.eclipse.ui/metrics/<category>} options (see
+ * {@link CommonUiDebug#isMetricsEnabled()}). When at least one category is enabled, the plug-in periodically appends a snapshot of all
+ * the metrics to the {@code ui-metrics.log} file of its state location; the period is controlled by the
+ * {@code org.ifml.eclipse.ui/metrics/interval} option, expressed in milliseconds.
+ * <p>
+ * Each snapshot is a block of tab-separated lines, preceded by a comment line with the snapshot time. Latencies are cumulative since
+ * the plug-in start and are expressed in nanoseconds.
+ */
+public final class UiMetrics {
+
+    /** The name of the file, in the plug-in state location, where snapshots are exported. */
+    public static final String EXPORT_FILE_NAME = "ui-metrics.log";
+
+    private static final long DEFAULT_EXPORT_INTERVAL_MILLIS = 60000;
+
+    private static final String HEADER = "type\tcategory\tname\tcount\tmean\tp50\tp90\tp99\tp999\tmax";
+
+    private static final ConcurrentMap<String, OperationTimer> TIMERS = Maps.newConcurrentMap();
+
+    private static final ConcurrentMap<String, OperationCounter> COUNTERS = Maps.newConcurrentMap();
+
+    private static ScheduledExecutorService exporter;
+
+    private static File exportFile;
+
+    private UiMetrics() {
+    }
+
+    /**
+     * Returns whether the metrics of at least one category are enabled.
+     * 
+     * @return {@code true} if metrics are enabled.
+     */
+    public static boolean isEnabled() {
+        for (CommonUiDebug category : CommonUiDebug.values()) {
+            if (category.isMetricsEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the timer measuring a specific operation, creating it if required.
+     * 
+     * @param category
+     *            the category enabling the timer.
+     * @param name
+     *            the operation name.
+     * @return the timer.
+     */
+    public static OperationTimer timer(CommonUiDebug category, String name) {
+        String key = getKey(category, name);
+        OperationTimer timer = TIMERS.get(key);
+        if (timer == null) {
+            OperationTimer newTimer = new OperationTimer(category, name, category.isMetricsEnabled());
+            timer = TIMERS.putIfAbsent(key, newTimer);
+            if (timer == null) {
+                timer = newTimer;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Returns the counter of a specific event, creating it if required.
+     * 
+     * @param category
+     *            the category enabling the counter.
+     * @param name
+     *            the event name.
+     * @return the counter.
+     */
+    public static OperationCounter counter(CommonUiDebug category, String name) {
+        String key = getKey(category, name);
+        OperationCounter counter = COUNTERS.get(key);
+        if (counter == null) {
+            OperationCounter newCounter = new OperationCounter(category, name, category.isMetricsEnabled());
+            counter = COUNTERS.putIfAbsent(key, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Writes a snapshot of all the enabled metrics.
+     * 
+     * @param out
+     *            the output.
+     * @throws IOException
+     *             if an I/O error occurred.
+     */
+    public static void writeSnapshot(Appendable out) throws IOException {
+        out.append("# ").append(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date())).append('\n');
+        out.append(HEADER).append('\n');
+        for (Map.Entry<String, OperationTimer> entry : ImmutableSortedMap.copyOf(TIMERS).entrySet()) {
+            OperationTimer timer = entry.getValue();
+            if (timer.isEnabled()) {
+                LatencyHistogram.Snapshot snapshot = timer.snapshot();
+                out.append("timer\t").append(timer.getCategory().name()).append('\t').append(timer.getName());
+                append(out, snapshot.getCount());
+                append(out, snapshot.getMean());
+                append(out, snapshot.getValueAtPercentile(50));
+                append(out, snapshot.getValueAtPercentile(90));
+                append(out, snapshot.getValueAtPercentile(99));
+                append(out, snapshot.getValueAtPercentile(99.9));
+                append(out, snapshot.getMax());
+                out.append('\n');
+            }
+        }
+        for (Map.Entry<String, OperationCounter> entry : ImmutableSortedMap.copyOf(COUNTERS).entrySet()) {
+            OperationCounter counter = entry.getValue();
+            if (counter.getCategory().isMetricsEnabled()) {
+                out.append("counter\t").append(counter.getCategory().name()).append('\t').append(counter.getName());
+                append(out, counter.get());
+                out.append("\t\t\t\t\t\t\n");
+            }
+        }
+    }
+
+    /**
+     * Starts the periodic export of the metrics snapshots to a file. Does nothing if metrics are disabled or the export is already
+     * started.
+     * 
+     * @param file
+     *            the file snapshots are appended to.
+     */
+    public static synchronized void startExport(File file) {
+        if (!isEnabled() || (exporter != null)) {
+            return;
+        }
+        long interval = Math.max(DebugOptions.getLong("metrics/interval", DEFAULT_EXPORT_INTERVAL_MILLIS), 1000);
+        exportFile = file;
+        exporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "IFML UI Metrics Exporter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        exporter.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                export();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic export of the metrics snapshots, exporting a last snapshot. Does nothing if the export is not started.
+     */
+    public static synchronized void stopExport() {
+        if (exporter == null) {
+            return;
+        }
+        exporter.shutdownNow();
+        exporter = null;
+        export();
+        exportFile = null;
+    }
+
+    private static synchronized void export() {
+        if (exportFile == null) {
+            return;
+        }
+        Writer out = null;
+        try {
+            out = new OutputStreamWriter(new FileOutputStream(exportFile, true), Charsets.UTF_8);
+            writeSnapshot(out);
+        } catch (IOException e) {
+            Logs.logError(e, "unable to export the UI metrics to " + exportFile, null);
+        } finally {
+            Closeables.closeQuietly(out);
+        }
+    }
+
+    private static void append(Appendable out, long value) throws IOException {
+        out.append('\t').append(Long.toString(value));
+    }
+
+    private static String getKey(CommonUiDebug category, String name) {
+        return category.name() + '/' + name;
+    }
+
+}
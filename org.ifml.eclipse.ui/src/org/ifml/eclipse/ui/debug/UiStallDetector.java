@@ -0,0 +1,323 @@
+package org.ifml.eclipse.ui.debug;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.ifml.eclipse.core.runtime.Logs;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+
+/**
+ * A watchdog detecting when the UI thread stalls while handling an event or running a runnable.
+ * <p>
+ * A daemon thread posts a heartbeat runnable with {@link Display#asyncExec(Runnable)} and periodically checks whether it ran: when it
+ * has been pending longer than a threshold, the UI thread is busy and its stack is sampled. Samples taken while the UI thread is idle
+ * are discarded. A display filter records the type of the event being dispatched, until the dispatch ends. Samples are aggregated in
+ * the collapsed-stack format understood by flame graph tools, with two synthetic root frames: the outermost entry point of this
+ * library found in the stack (for example {@code ImageProviders.get} or {@code Controls.textExtent}) and the type of the stalled
+ * event, or {@code Runnable} for work not run by an event. The aggregated samples are written to the
+ * {@value #EXPORT_FILE_NAME} file in the plug-in state location after each stall and when the detector is uninstalled.
+ * <p>
+ * The detector is enabled only if {@link CommonUiDebug#WIDGET} is enabled and the {@code org.ifml.eclipse.ui/stalls} option is
+ * {@code true}; the threshold and the sampling period are controlled by the {@code org.ifml.eclipse.ui/stalls/threshold} and
+ * {@code org.ifml.eclipse.ui/stalls/sampling} options, expressed in milliseconds. When disabled nothing is installed.
+ */
+public final class UiStallDetector {
+
+    /** The name of the file, in the plug-in state location, where the collapsed stacks are exported. */
+    public static final String EXPORT_FILE_NAME = "ui-stalls.collapsed";
+
+    private static final long DEFAULT_THRESHOLD_MILLIS = 500;
+
+    private static final long DEFAULT_SAMPLING_MILLIS = 50;
+
+    private static final String LIBRARY_PACKAGE = "org.ifml.eclipse.ui.";
+
+    private static final String IDLE_CLASS = "org.eclipse.swt.widgets.Display";
+
+    private static final String IDLE_METHOD = "sleep";
+
+    private static final int IDLE_DEPTH = 8;
+
+    private static final String NO_EVENT_NAME = "Runnable";
+
+    private static final Map<Integer, String> EVENT_NAMES = ImmutableMap.<Integer, String> builder().put(SWT.KeyDown, "KeyDown")
+            .put(SWT.KeyUp, "KeyUp").put(SWT.MouseDown, "MouseDown").put(SWT.MouseUp, "MouseUp")
+            .put(SWT.MouseDoubleClick, "MouseDoubleClick").put(SWT.MouseMove, "MouseMove").put(SWT.MouseEnter, "MouseEnter")
+            .put(SWT.MouseExit, "MouseExit").put(SWT.MouseHover, "MouseHover").put(SWT.MouseWheel, "MouseWheel")
+            .put(SWT.Selection, "Selection").put(SWT.DefaultSelection, "DefaultSelection").put(SWT.Paint, "Paint")
+            .put(SWT.Resize, "Resize").put(SWT.Move, "Move").put(SWT.FocusIn, "FocusIn").put(SWT.FocusOut, "FocusOut")
+            .put(SWT.Traverse, "Traverse").put(SWT.Expand, "Expand").put(SWT.Collapse, "Collapse").put(SWT.Modify, "Modify")
+            .put(SWT.Verify, "Verify").put(SWT.SetData, "SetData").put(SWT.MeasureItem, "MeasureItem")
+            .put(SWT.PaintItem, "PaintItem").put(SWT.Show, "Show").put(SWT.Hide, "Hide").put(SWT.Activate, "Activate")
+            .put(SWT.Deactivate, "Deactivate").put(SWT.Close, "Close").put(SWT.MenuDetect, "MenuDetect")
+            .put(SWT.DragDetect, "DragDetect").build();
+
+    private static UiStallDetector instance;
+
+    private final Display display;
+
+    private final Thread uiThread;
+
+    private final File exportFile;
+
+    private final long thresholdNanos;
+
+    private final long samplingMillis;
+
+    /** The aggregated samples, guarded by {@code this}. */
+    private final Map<String, Long> samples = Maps.newHashMap();
+
+    private final Listener filter = new Listener() {
+        @Override
+        public void handleEvent(Event event) {
+            dispatchType = event.type;
+            if (!endOfDispatchPending) {
+                endOfDispatchPending = true;
+                display.asyncExec(endOfDispatch); // run by the event loop once the dispatch ends
+            }
+        }
+    };
+
+    private final Runnable endOfDispatch = new Runnable() {
+        @Override
+        public void run() {
+            endOfDispatchPending = false;
+            dispatchType = SWT.None;
+        }
+    };
+
+    private final Runnable heartbeat = new Runnable() {
+        @Override
+        public void run() {
+            heartbeatPosted = 0;
+        }
+    };
+
+    private final Thread watchdog = new Thread("IFML UI Stall Detector") {
+        @Override
+        public void run() {
+            watch();
+        }
+    };
+
+    /** The time the pending heartbeat was posted, or 0 if it ran. */
+    private volatile long heartbeatPosted;
+
+    /** The type of the event being dispatched, or {@link SWT#None}. */
+    private volatile int dispatchType = SWT.None;
+
+    /** Whether the end of the dispatch is being waited for, accessed only by the UI thread. */
+    private boolean endOfDispatchPending;
+
+    private volatile boolean stopped;
+
+    private UiStallDetector(Display display, File exportFile) {
+        this.display = display;
+        this.uiThread = display.getThread();
+        this.exportFile = exportFile;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(DebugOptions.getLong("stalls/threshold",
+                DEFAULT_THRESHOLD_MILLIS), 1));
+        this.samplingMillis = Math.max(DebugOptions.getLong("stalls/sampling", DEFAULT_SAMPLING_MILLIS), 1);
+    }
+
+    /**
+     * Returns whether the stall detector is enabled.
+     * 
+     * @return {@code true} if the stall detector is enabled.
+     */
+    public static boolean isEnabled() {
+        return CommonUiDebug.WIDGET.isEnabled() && DebugOptions.isEnabled("stalls");
+    }
+
+    /**
+     * Installs the stall detector on a display. Must be called from the UI thread of the display. Does nothing if the detector is
+     * disabled or already installed.
+     * 
+     * @param display
+     *            the display.
+     * @param exportFile
+     *            the file the collapsed stacks are written to.
+     */
+    public static synchronized void install(Display display, File exportFile) {
+        if (!isEnabled() || (instance != null) || display.isDisposed()) {
+            return;
+        }
+        instance = new UiStallDetector(display, exportFile);
+        for (int eventType : EVENT_NAMES.keySet()) {
+            display.addFilter(eventType, instance.filter);
+        }
+        instance.watchdog.setDaemon(true);
+        instance.watchdog.start();
+    }
+
+    /**
+     * Uninstalls the stall detector, writing the collapsed stacks. Does nothing if the detector is not installed.
+     */
+    public static synchronized void uninstall() {
+        if (instance == null) {
+            return;
+        }
+        final UiStallDetector detector = instance;
+        instance = null;
+        detector.stopped = true;
+        detector.watchdog.interrupt();
+        if (!detector.display.isDisposed()) {
+            detector.display.asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    for (int eventType : EVENT_NAMES.keySet()) {
+                        detector.display.removeFilter(eventType, detector.filter);
+                    }
+                }
+            });
+        }
+        detector.export();
+    }
+
+    /**
+     * Writes the samples collected by the installed detector in the collapsed-stack format: one line for each distinct stack, with
+     * semicolon-separated frames (outermost first) followed by a space and the number of samples.
+     * 
+     * @param out
+     *            the output.
+     * @throws IOException
+     *             if an I/O error occurred.
+     */
+    public static void writeCollapsedStacks(Appendable out) throws IOException {
+        UiStallDetector detector;
+        synchronized (UiStallDetector.class) {
+            detector = instance;
+        }
+        if (detector != null) {
+            detector.write(out);
+        }
+    }
+
+    private void watch() {
+        long stalledSince = 0;
+        while (!stopped) {
+            try {
+                Thread.sleep(samplingMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long posted = heartbeatPosted;
+            if (posted == 0) {
+                if (stalledSince != 0) {
+                    stalledSince = 0;
+                    export();
+                }
+                if (!postHeartbeat()) {
+                    return;
+                }
+            } else if (System.nanoTime() - posted > thresholdNanos) {
+                StackTraceElement[] stack = uiThread.getStackTrace();
+                if (!isIdle(stack)) {
+                    String eventName = getEventName(dispatchType);
+                    if (stalledSince != posted) {
+                        stalledSince = posted;
+                        CommonUiDebug.WIDGET.debug("UI thread stalled handling a %s event", eventName);
+                    }
+                    sample(stack, eventName);
+                }
+            }
+        }
+    }
+
+    private boolean postHeartbeat() {
+        long now = System.nanoTime();
+        heartbeatPosted = (now != 0) ? now : 1;
+        try {
+            display.asyncExec(heartbeat);
+            return true;
+        } catch (SWTException e) {
+            return false; // the display was disposed
+        }
+    }
+
+    private static boolean isIdle(StackTraceElement[] stack) {
+        if (stack.length == 0) {
+            return true;
+        }
+        for (int i = 0; i < Math.min(stack.length, IDLE_DEPTH); i++) {
+            if (IDLE_METHOD.equals(stack[i].getMethodName()) && IDLE_CLASS.equals(stack[i].getClassName())) {
+                return true; // waiting for events
+            }
+        }
+        return false;
+    }
+
+    private void sample(StackTraceElement[] stack, String eventName) {
+        StringBuilder key = new StringBuilder(stack.length * 48);
+        key.append(getEntryPoint(stack)).append(';').append(eventName);
+        for (int i = stack.length - 1; i >= 0; i--) {
+            key.append(';').append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+        }
+        String collapsed = key.toString();
+        synchronized (this) {
+            Long count = samples.get(collapsed);
+            samples.put(collapsed, (count != null) ? count + 1 : 1L);
+        }
+    }
+
+    private static String getEntryPoint(StackTraceElement[] stack) {
+        for (int i = stack.length - 1; i >= 0; i--) {
+            String className = stack[i].getClassName();
+            if (className.startsWith(LIBRARY_PACKAGE) && !className.startsWith(LIBRARY_PACKAGE + "debug.")) {
+                String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                int innerIndex = simpleName.indexOf('$');
+                if (innerIndex > 0) {
+                    simpleName = simpleName.substring(0, innerIndex);
+                }
+                return simpleName + '.' + stack[i].getMethodName();
+            }
+        }
+        return "other";
+    }
+
+    private static String getEventName(int eventType) {
+        if (eventType == SWT.None) {
+            return NO_EVENT_NAME;
+        }
+        String name = EVENT_NAMES.get(eventType);
+        return (name != null) ? name : "Event" + eventType;
+    }
+
+    private void write(Appendable out) throws IOException {
+        Map<String, Long> copy;
+        synchronized (this) {
+            copy = ImmutableSortedMap.copyOf(samples);
+        }
+        for (Map.Entry<String, Long> entry : copy.entrySet()) {
+            out.append(entry.getKey()).append(' ').append(Long.toString(entry.getValue())).append('\n');
+        }
+    }
+
+    private synchronized void export() {
+        Writer out = null;
+        try {
+            out = new OutputStreamWriter(new FileOutputStream(exportFile), Charsets.UTF_8);
+            write(out);
+        } catch (IOException e) {
+            Logs.logError(e, "unable to export the UI stalls to " + exportFile, null);
+        } finally {
+            Closeables.closeQuietly(out);
+        }
+    }
+
+}
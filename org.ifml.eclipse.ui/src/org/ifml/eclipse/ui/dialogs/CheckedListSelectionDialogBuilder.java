@@ -1,27 +1,40 @@
 package org.ifml.eclipse.ui.dialogs;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.Nullable;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ILabelProvider;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.dialogs.ListSelectionDialog;
+import org.ifml.eclipse.core.runtime.Logs;
 import org.ifml.eclipse.ui.CommonUi;
 import org.ifml.eclipse.ui.viewers.LabelProviderComparator;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 /**
  * A builder for {@link ListSelectionDialog}.
  */
 public final class CheckedListSelectionDialogBuilder {
 
+    /** The minimum number of items sorted in background by dialogs built after a call to {@link #parallelSort()}. */
+    public static final int PARALLEL_SORT_THRESHOLD = 4096;
+
     private Shell shell;
 
     private String settingsKey;
@@ -36,6 +49,8 @@ public final class CheckedListSelectionDialogBuilder {
 
     private List<?> initialSelections;
 
+    private boolean parallelSort;
+
     /**
      * Sets the parent shell.
      * 
@@ -123,6 +138,18 @@ public final class CheckedListSelectionDialogBuilder {
         return this;
     }
 
+    /**
+     * Sorts large lists of items (at least {@value #PARALLEL_SORT_THRESHOLD}) in parallel, out of the UI thread: the dialog opens
+     * immediately, showing a busy cursor, and is populated when the items are sorted. The {@link ILabelProvider#getText(Object)}
+     * method of the label provider must be thread-safe.
+     * 
+     * @return this builder.
+     */
+    public CheckedListSelectionDialogBuilder parallelSort() {
+        this.parallelSort = true;
+        return this;
+    }
+
     /**
      * Builds the dialog.
      * 
@@ -134,10 +161,14 @@ public final class CheckedListSelectionDialogBuilder {
         Preconditions.checkNotNull(message);
         Preconditions.checkNotNull(items);
         Preconditions.checkNotNull(labelProvider);
-        List<?> sortedItems = Lists.newArrayList(items);
-        Collections.sort(sortedItems, new LabelProviderComparator(labelProvider));
-        ListSelectionDialog dialog = new ListSelectionDialog(shell, sortedItems, ArrayContentProvider.getInstance(), labelProvider,
-                message);
+        LabelProviderComparator comparator = new LabelProviderComparator(labelProvider);
+        ListSelectionDialog dialog;
+        if (parallelSort && (items.size() >= PARALLEL_SORT_THRESHOLD)) {
+            dialog = new SortingListSelectionDialog(shell, items, comparator, labelProvider, message);
+        } else {
+            dialog = new ListSelectionDialog(shell, comparator.sortedCopy(items), ArrayContentProvider.getInstance(), labelProvider,
+                    message);
+        }
         dialog.setTitle(title);
         if (initialSelections != null) {
             dialog.setInitialElementSelections(initialSelections);
@@ -149,4 +180,96 @@ public final class CheckedListSelectionDialogBuilder {
         return dialog;
     }
 
+    /**
+     * A list selection dialog sorting its items in background, and populated when the sort completes.
+     * <p>
+     * The input given to {@link ListSelectionDialog} is empty, the sorted items being set as input of the viewer only: the result is
+     * therefore taken from the checked elements of the viewer.
+     */
+    private static final class SortingListSelectionDialog extends ListSelectionDialog {
+
+        private final List<?> items;
+
+        private final LabelProviderComparator comparator;
+
+        private boolean populated;
+
+        private SortingListSelectionDialog(Shell shell, List<?> items, LabelProviderComparator comparator,
+                ILabelProvider labelProvider, String message) {
+            super(shell, ImmutableList.of(), ArrayContentProvider.getInstance(), labelProvider, message);
+            this.items = items;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected Control createDialogArea(Composite parent) {
+            Control area = super.createDialogArea(parent);
+            final Display display = parent.getDisplay();
+            getShell().setCursor(display.getSystemCursor(SWT.CURSOR_APPSTARTING));
+            Job sortJob = new Job("Sorting the items of the dialog") {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    List<?> sortedItems;
+                    try {
+                        sortedItems = comparator.parallelSortedCopy(items);
+                    } catch (RuntimeException e) {
+                        Logs.logError(e, "unable to sort the items of the dialog", null);
+                        sortedItems = items;
+                    }
+                    final List<?> input = sortedItems;
+                    if (!display.isDisposed()) {
+                        display.asyncExec(new Runnable() {
+                            @Override
+                            public void run() {
+                                populate(input);
+                            }
+                        });
+                    }
+                    return Status.OK_STATUS;
+                }
+            };
+            sortJob.setSystem(true);
+            sortJob.schedule();
+            return area;
+        }
+
+        @Override
+        protected Control createButtonBar(Composite parent) {
+            Control buttonBar = super.createButtonBar(parent);
+            updateButtons();
+            return buttonBar;
+        }
+
+        @Override
+        protected void okPressed() {
+            // ListSelectionDialog.okPressed would compute the result from the empty input given to the constructor
+            setResult(Arrays.asList(getViewer().getCheckedElements()));
+            setReturnCode(OK);
+            close();
+        }
+
+        private void populate(List<?> sortedItems) {
+            Control control = getViewer().getControl();
+            if (control.isDisposed()) {
+                return;
+            }
+            populated = true;
+            getViewer().setInput(sortedItems);
+            List<?> initialSelections = getInitialElementSelections();
+            if (!initialSelections.isEmpty()) {
+                getViewer().setCheckedElements(initialSelections.toArray());
+            }
+            getShell().setCursor(null);
+            updateButtons();
+        }
+
+        private void updateButtons() {
+            Button okButton = getButton(IDialogConstants.OK_ID);
+            if (okButton != null) {
+                okButton.setEnabled(populated);
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,393 @@
+package org.ifml.eclipse.ui.dialogs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.ui.plugin.AbstractUIPlugin;
+import org.ifml.eclipse.core.runtime.Logs;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+
+/**
+ * The dialog settings of a UI plug-in, served to dialogs by {@link Dialogs#getDialogSettings(AbstractUIPlugin, String)} when the
+ * plug-in enabled their background save through {@link Dialogs#enableBackgroundSave(AbstractUIPlugin)}.
+ * <p>
+ * Top-level sections are looked up without locking in a concurrent map. Sections are wrapped so that every change marks the settings
+ * as dirty; the first change schedules a background job that, after a short delay coalescing the following changes, serializes the
+ * settings and replaces the settings file of the plug-in by writing a temporary file and renaming it. Since the settings are then
+ * already on disk, saving them when the plug-in stops only writes the changes not yet flushed.
+ * <p>
+ * The settings are not thread-safe: all the accesses through the wrappers are serialized on the settings of the plug-in, which must
+ * not be changed directly.
+ */
+final class DialogSettingsStore {
+
+    /** The name of the settings file in the plug-in state location, the same as {@link AbstractUIPlugin}. */
+    private static final String FILE_NAME = "dialog_settings.xml";
+
+    private static final long FLUSH_DELAY_MILLIS = 1000;
+
+    /** The stores by plug-in: a store does not reference its plug-in, so that it is released with the plug-in. */
+    private static final ConcurrentMap<AbstractUIPlugin, DialogSettingsStore> STORES = new MapMaker().weakKeys().makeMap();
+
+    /** The plug-ins whose settings are saved in background. */
+    private static final Set<AbstractUIPlugin> ENABLED_PLUGINS = Collections.newSetFromMap(new MapMaker().weakKeys()
+            .<AbstractUIPlugin, Boolean> makeMap());
+
+    private final String pluginId;
+
+    /** The settings file, or {@code null} if not running inside the platform. */
+    private final File file;
+
+    private final IDialogSettings settings;
+
+    private final ConcurrentMap<String, IDialogSettings> sections = Maps.newConcurrentMap();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final Job flushJob = new Job("Saving dialog settings") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            flush();
+            return Status.OK_STATUS;
+        }
+    };
+
+    private DialogSettingsStore(AbstractUIPlugin plugin) {
+        this.pluginId = plugin.getBundle().getSymbolicName();
+        this.file = getSettingsFile(plugin);
+        this.settings = plugin.getDialogSettings();
+        flushJob.setSystem(true);
+    }
+
+    /**
+     * Enables the store of the dialog settings of a plug-in. The store is created when the settings are first requested.
+     * 
+     * @param plugin
+     *            the plug-in.
+     */
+    static void enable(AbstractUIPlugin plugin) {
+        ENABLED_PLUGINS.add(plugin);
+    }
+
+    /**
+     * Returns the store of the dialog settings of a plug-in, creating it if needed.
+     * 
+     * @param plugin
+     *            the plug-in.
+     * @return the store, or {@code null} if the store of the plug-in is not enabled.
+     */
+    @Nullable
+    static DialogSettingsStore get(AbstractUIPlugin plugin) {
+        DialogSettingsStore store = STORES.get(plugin);
+        if ((store == null) && ENABLED_PLUGINS.contains(plugin)) {
+            DialogSettingsStore newStore = new DialogSettingsStore(plugin);
+            store = STORES.putIfAbsent(plugin, newStore);
+            if (store == null) {
+                store = newStore;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Returns the store of the dialog settings of a plug-in, if already created.
+     * 
+     * @param plugin
+     *            the plug-in.
+     * @return the store, or {@code null} if the settings of the plug-in have never been requested.
+     */
+    @Nullable
+    static DialogSettingsStore getIfPresent(AbstractUIPlugin plugin) {
+        return STORES.get(plugin);
+    }
+
+    /**
+     * Returns a top-level section, creating it if needed.
+     * 
+     * @param key
+     *            the section key.
+     * @return the section.
+     */
+    IDialogSettings getSection(String key) {
+        IDialogSettings section = sections.get(key);
+        if (section == null) {
+            synchronized (settings) {
+                IDialogSettings delegate = settings.getSection(key);
+                if (delegate == null) {
+                    delegate = settings.addNewSection(key);
+                    markDirty();
+                }
+                section = new Section(delegate);
+            }
+            IDialogSettings previous = sections.putIfAbsent(key, section);
+            if (previous != null) {
+                section = previous;
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Writes the pending changes in the calling thread, cancelling the scheduled background flush.
+     */
+    void flushNow() {
+        flushJob.cancel();
+        flush();
+    }
+
+    @Nullable
+    private static File getSettingsFile(AbstractUIPlugin plugin) {
+        try {
+            return plugin.getStateLocation().append(FILE_NAME).toFile();
+        } catch (RuntimeException e) {
+            return null; // not running inside the platform: the settings are not persisted
+        }
+    }
+
+    private void markDirty() {
+        if (dirty.compareAndSet(false, true)) {
+            flushJob.schedule(FLUSH_DELAY_MILLIS);
+        }
+    }
+
+    /** Writes the settings if dirty. Synchronized so that the background job and the shutdown never write concurrently. */
+    private synchronized void flush() {
+        if (!dirty.getAndSet(false) || (file == null)) {
+            return;
+        }
+        StringWriter serialized = new StringWriter();
+        try {
+            synchronized (settings) {
+                settings.save(serialized);
+            }
+        } catch (IOException e) {
+            Logs.logError(e, "unable to serialize the dialog settings of " + pluginId, null);
+            return;
+        }
+        File tempFile = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            out.write(serialized.toString().getBytes(Charsets.UTF_8));
+            out.close();
+            out = null;
+            if (!tempFile.renameTo(file) && (!file.delete() || !tempFile.renameTo(file))) {
+                throw new IOException("unable to replace " + file);
+            }
+        } catch (IOException e) {
+            Logs.logError(e, "unable to save the dialog settings to " + file, null);
+        } finally {
+            Closeables.closeQuietly(out);
+        }
+    }
+
+    /**
+     * A section of the settings, serializing the accesses on the settings of the plug-in and marking them as dirty when changed.
+     */
+    private final class Section implements IDialogSettings {
+
+        private final IDialogSettings delegate;
+
+        private Section(IDialogSettings delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public IDialogSettings addNewSection(String name) {
+            synchronized (settings) {
+                markDirty();
+                return new Section(delegate.addNewSection(name));
+            }
+        }
+
+        @Override
+        public void addSection(IDialogSettings section) {
+            synchronized (settings) {
+                markDirty();
+                delegate.addSection((section instanceof Section) ? ((Section) section).delegate : section);
+            }
+        }
+
+        @Override
+        public String get(String key) {
+            synchronized (settings) {
+                return delegate.get(key);
+            }
+        }
+
+        @Override
+        public String[] getArray(String key) {
+            synchronized (settings) {
+                return delegate.getArray(key);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(String key) {
+            synchronized (settings) {
+                return delegate.getBoolean(key);
+            }
+        }
+
+        @Override
+        public double getDouble(String key) throws NumberFormatException {
+            synchronized (settings) {
+                return delegate.getDouble(key);
+            }
+        }
+
+        @Override
+        public float getFloat(String key) throws NumberFormatException {
+            synchronized (settings) {
+                return delegate.getFloat(key);
+            }
+        }
+
+        @Override
+        public int getInt(String key) throws NumberFormatException {
+            synchronized (settings) {
+                return delegate.getInt(key);
+            }
+        }
+
+        @Override
+        public long getLong(String key) throws NumberFormatException {
+            synchronized (settings) {
+                return delegate.getLong(key);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public IDialogSettings getSection(String sectionName) {
+            synchronized (settings) {
+                IDialogSettings section = delegate.getSection(sectionName);
+                return (section != null) ? new Section(section) : null;
+            }
+        }
+
+        @Override
+        public IDialogSettings[] getSections() {
+            synchronized (settings) {
+                IDialogSettings[] sections = delegate.getSections();
+                IDialogSettings[] wrappers = new IDialogSettings[sections.length];
+                for (int i = 0; i < sections.length; i++) {
+                    wrappers[i] = new Section(sections[i]);
+                }
+                return wrappers;
+            }
+        }
+
+        @Override
+        public void load(Reader reader) {
+            synchronized (settings) {
+                markDirty();
+                delegate.load(reader);
+            }
+        }
+
+        @Override
+        public void load(String fileName) throws IOException {
+            synchronized (settings) {
+                markDirty();
+                delegate.load(fileName);
+            }
+        }
+
+        @Override
+        public void put(String key, String[] value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void put(String key, double value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void put(String key, float value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void put(String key, int value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void put(String key, long value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void put(String key, String value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void put(String key, boolean value) {
+            synchronized (settings) {
+                markDirty();
+                delegate.put(key, value);
+            }
+        }
+
+        @Override
+        public void save(Writer writer) throws IOException {
+            synchronized (settings) {
+                delegate.save(writer);
+            }
+        }
+
+        @Override
+        public void save(String fileName) throws IOException {
+            synchronized (settings) {
+                delegate.save(fileName);
+            }
+        }
+
+    }
+
+}
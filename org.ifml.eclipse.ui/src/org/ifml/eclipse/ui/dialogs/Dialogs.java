@@ -11,7 +11,6 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.FontMetrics;
-import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.layout.FormAttachment;
 import org.eclipse.swt.layout.FormData;
@@ -21,6 +20,10 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Sash;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.ifml.base.ImmutablePair;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationTimer;
+import org.ifml.eclipse.ui.debug.UiMetrics;
+import org.ifml.eclipse.ui.graphics.FontMetricsCache;
 import org.ifml.eclipse.ui.widgets.Controls;
 
 import com.google.common.base.Preconditions;
@@ -38,6 +41,8 @@ public class Dialogs {
 
     private static final Map<Integer, String> BUTTON_LABELS;
 
+    private static final OperationTimer CHARS_TO_PIXELS_TIMER = UiMetrics.timer(CommonUiDebug.FONT, "Dialogs.charsToPixels");
+
     static {
         Map<Integer, String> map = Maps.newHashMap();
         map.put(IDialogConstants.ABORT_ID, IDialogConstants.ABORT_LABEL);
@@ -66,6 +71,9 @@ public class Dialogs {
 
     /**
      * Returns the dialog settings stored in a specific UI plug-in under a specific key.
+     * <p>
+     * If the plug-in enabled it (see {@link #enableBackgroundSave(AbstractUIPlugin)}), changes to the returned settings are saved to
+     * disk in background, shortly after being made.
      * 
      * @param plugin
      *            the UI plug-in storing dialog settings.
@@ -73,13 +81,39 @@ public class Dialogs {
      *            the key identifying a specific group of settings.
      * @return the dialog settings.
      */
-    public static synchronized IDialogSettings getDialogSettings(AbstractUIPlugin plugin, String settingsKey) {
-        IDialogSettings globalSettings = plugin.getDialogSettings();
-        IDialogSettings settings = globalSettings.getSection(settingsKey);
-        if (settings == null) {
-            settings = globalSettings.addNewSection(settingsKey);
+    public static IDialogSettings getDialogSettings(AbstractUIPlugin plugin, String settingsKey) {
+        DialogSettingsStore store = DialogSettingsStore.get(plugin);
+        return (store != null) ? store.getSection(settingsKey) : getPluginDialogSettings(plugin, settingsKey);
+    }
+
+    /**
+     * Saves in background the changes to the dialog settings of a UI plug-in made through
+     * {@link #getDialogSettings(AbstractUIPlugin, String)}, shortly after being made.
+     * <p>
+     * The plug-in must access its dialog settings only through {@link #getDialogSettings(AbstractUIPlugin, String)}, must call this
+     * method before requesting them, typically when started, and must override {@link AbstractUIPlugin#saveDialogSettings()} to call
+     * {@link #saveDialogSettings(AbstractUIPlugin)}: otherwise stopping the plug-in would write the settings file again, concurrently
+     * with the background save.
+     * 
+     * @param plugin
+     *            the UI plug-in storing dialog settings.
+     */
+    public static void enableBackgroundSave(AbstractUIPlugin plugin) {
+        DialogSettingsStore.enable(plugin);
+    }
+
+    /**
+     * Saves the changes to the dialog settings of a UI plug-in made through {@link #getDialogSettings(AbstractUIPlugin, String)} and
+     * not yet saved in background. Does nothing if there are no such changes.
+     * 
+     * @param plugin
+     *            the UI plug-in storing dialog settings.
+     */
+    public static void saveDialogSettings(AbstractUIPlugin plugin) {
+        DialogSettingsStore store = DialogSettingsStore.getIfPresent(plugin);
+        if (store != null) {
+            store.flushNow();
         }
-        return settings;
     }
 
     /**
@@ -96,7 +130,8 @@ public class Dialogs {
     }
 
     /**
-     * Returns the number of pixels corresponding to the width and height of the given number of characters.
+     * Returns the number of pixels corresponding to the width and height of the given number of characters. The metrics of the
+     * dialog font are taken from the {@link FontMetricsCache} of the control's display.
      * 
      * @param control
      *            the base control.
@@ -107,12 +142,14 @@ public class Dialogs {
      * @return the width and height in pixels.
      */
     public static Point charsToPixels(Control control, int widthInChars, int heightInChars) {
-        GC gc = new GC(control);
-        gc.setFont(JFaceResources.getDialogFont());
-        FontMetrics fontMetrics = gc.getFontMetrics();
-        gc.dispose();
-        return new Point(Dialog.convertWidthInCharsToPixels(fontMetrics, widthInChars), Dialog.convertHeightInCharsToPixels(
-                fontMetrics, heightInChars));
+        long start = CHARS_TO_PIXELS_TIMER.start();
+        try {
+            FontMetrics fontMetrics = FontMetricsCache.get(control.getDisplay()).getFontMetrics(JFaceResources.getDialogFont());
+            return new Point(Dialog.convertWidthInCharsToPixels(fontMetrics, widthInChars), Dialog.convertHeightInCharsToPixels(
+                    fontMetrics, heightInChars));
+        } finally {
+            CHARS_TO_PIXELS_TIMER.stop(start);
+        }
     }
 
     /**
@@ -266,6 +303,15 @@ public class Dialogs {
         return ImmutablePair.of(comp0, comp1);
     }
 
+    private static synchronized IDialogSettings getPluginDialogSettings(AbstractUIPlugin plugin, String settingsKey) {
+        IDialogSettings globalSettings = plugin.getDialogSettings();
+        IDialogSettings settings = globalSettings.getSection(settingsKey);
+        if (settings == null) {
+            settings = globalSettings.addNewSection(settingsKey);
+        }
+        return settings;
+    }
+
     private static final class _SplitChildComposite extends Composite {
 
         public _SplitChildComposite(Composite parent, int style) {
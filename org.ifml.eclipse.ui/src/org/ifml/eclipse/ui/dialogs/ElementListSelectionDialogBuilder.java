@@ -8,7 +8,6 @@ import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
 import org.ifml.eclipse.ui.CommonUi;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
 /**
@@ -29,7 +28,7 @@ public final class ElementListSelectionDialogBuilder {
 
     private String title;
 
-    private Iterable<?> items;
+    private Object[] items;
 
     private ILabelProvider labelProvider;
 
@@ -122,7 +121,7 @@ public final class ElementListSelectionDialogBuilder {
      * @return the list of items.
      */
     public ElementListSelectionDialogBuilder items(Iterable<?> items) {
-        this.items = ImmutableList.copyOf(items);
+        this.items = Iterables.toArray(items, Object.class);
         return this;
     }
 
@@ -141,7 +140,7 @@ public final class ElementListSelectionDialogBuilder {
         dialog.setMultipleSelection(multiSelection);
         dialog.setTitle(title);
         dialog.setMessage(message);
-        dialog.setElements(Iterables.toArray(items, Object.class));
+        dialog.setElements(items);
         if (settingsKey != null) {
             dialog.setDialogBoundsSettings(Dialogs.getDialogSettings(CommonUi.getDefault(), settingsKey),
                     Dialog.DIALOG_PERSISTLOCATION | Dialog.DIALOG_PERSISTSIZE);
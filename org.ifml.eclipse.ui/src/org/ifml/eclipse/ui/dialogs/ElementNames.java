@@ -0,0 +1,169 @@
+package org.ifml.eclipse.ui.dialogs;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.ILabelProvider;
+import org.ifml.eclipse.ui.Workers;
+import org.ifml.eclipse.ui.viewers.BasicLabelProvider;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * The names of the items of a selection dialog, computed once by a label provider.
+ * <p>
+ * Names are stored in an array parallel to the list of items and can be looked up by item index or by item (items are compared by
+ * identity), so that filtering, sorting and the selection history do not invoke the label provider again.
+ */
+final class ElementNames {
+
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private final String[] names;
+
+    private final Map<Object, Integer> indices;
+
+    private ElementNames(List<?> items, String[] names) {
+        this.names = names;
+        this.indices = new IdentityHashMap<Object, Integer>(items.size());
+        for (int i = 0; i < names.length; i++) {
+            indices.put(items.get(i), i);
+        }
+    }
+
+    /**
+     * Computes the names of some items in the calling thread.
+     * 
+     * @param items
+     *            the items.
+     * @param labelProvider
+     *            the label provider.
+     * @return the future names, already computed.
+     */
+    static Future<ElementNames> compute(List<?> items, ILabelProvider labelProvider) {
+        String[] names = new String[items.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = Strings.nullToEmpty(labelProvider.getText(items.get(i)));
+        }
+        return Futures.immediateFuture(new ElementNames(items, names));
+    }
+
+    /**
+     * Computes the names of some items in background, splitting them in chunks computed in parallel on the {@link Workers} pool.
+     * 
+     * @param items
+     *            the items.
+     * @param labelProvider
+     *            the label provider, whose {@link ILabelProvider#getText(Object)} method must be thread-safe.
+     * @return the future names.
+     */
+    static Future<ElementNames> computeInBackground(final List<?> items, final ILabelProvider labelProvider) {
+        final FutureTask<ElementNames> task = new FutureTask<ElementNames>(new Callable<ElementNames>() {
+            @Override
+            public ElementNames call() {
+                final String[] names = new String[items.size()];
+                Workers.invokeChunks(names.length, MIN_CHUNK_SIZE, new Workers.RangeTask() {
+                    @Override
+                    public void run(int from, int to) {
+                        for (int i = from; i < to; i++) {
+                            names[i] = Strings.nullToEmpty(labelProvider.getText(items.get(i)));
+                        }
+                    }
+                });
+                return new ElementNames(items, names);
+            }
+        });
+        Job job = new Job("Computing element names") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                task.run();
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+        return task;
+    }
+
+    /**
+     * Waits for some names to be computed.
+     * 
+     * @param names
+     *            the future names.
+     * @return the names.
+     */
+    static ElementNames get(Future<ElementNames> names) {
+        try {
+            return names.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the name of the item at an index.
+     * 
+     * @param index
+     *            the item index.
+     * @return the name.
+     */
+    String get(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the name of an item.
+     * 
+     * @param item
+     *            the item.
+     * @return the name, or {@code null} if the object is not one of the items.
+     */
+    @Nullable
+    String get(Object item) {
+        Integer index = indices.get(item);
+        return (index != null) ? names[index] : null;
+    }
+
+    /**
+     * Returns the names of all the items. The returned array must not be modified.
+     * 
+     * @return the names, by item index.
+     */
+    String[] getAll() {
+        return names;
+    }
+
+    /**
+     * Returns a label provider returning the names of the items, and falling back to another label provider for other objects.
+     * 
+     * @param labelProvider
+     *            the fallback label provider.
+     * @return the label provider.
+     */
+    ILabelProvider asLabelProvider(final ILabelProvider labelProvider) {
+        return new BasicLabelProvider() {
+            @Override
+            public String getText(Object element) {
+                String name = get(element);
+                return (name != null) ? name : Strings.nullToEmpty(labelProvider.getText(element));
+            }
+        };
+    }
+
+}
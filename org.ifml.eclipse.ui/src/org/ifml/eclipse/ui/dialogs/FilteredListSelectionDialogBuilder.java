@@ -1,7 +1,11 @@
 package org.ifml.eclipse.ui.dialogs;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -14,11 +18,20 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
 import org.ifml.eclipse.ui.CommonUi;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationTimer;
+import org.ifml.eclipse.ui.debug.UiMetrics;
+import org.ifml.eclipse.ui.dialogs.ItemNameIndex.NameScorer;
+import org.ifml.eclipse.ui.viewers.LabelProviderComparator;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 /**
  * A builder for {@link FilteredItemsSelectionDialog}.
@@ -28,6 +41,15 @@ import com.google.common.collect.ImmutableList;
  */
 public final class FilteredListSelectionDialogBuilder {
 
+    /** The minimum number of items whose names are indexed to speed up filtering. */
+    public static final int INDEX_THRESHOLD = 4096;
+
+    /** The default maximum number of items shown by dialogs using fuzzy matching. */
+    public static final int DEFAULT_FUZZY_LIMIT = 1000;
+
+    private static final OperationTimer FILL_TIMER = UiMetrics.timer(CommonUiDebug.WIDGET,
+            "FilteredListSelectionDialogBuilder.fillContentProvider");
+
     private Shell shell;
 
     private Boolean multiSelection;
@@ -46,6 +68,12 @@ public final class FilteredListSelectionDialogBuilder {
 
     private Function<Composite, Control> extendedContentAreaCreator;
 
+    private int fuzzyLimit;
+
+    private boolean threadSafeLabelProvider;
+
+    private Function<Object, String> historyKeyFunction;
+
     /**
      * Sets the parent shell.
      * 
@@ -163,6 +191,57 @@ public final class FilteredListSelectionDialogBuilder {
         return this;
     }
 
+    /**
+     * Declares that the {@link ILabelProvider#getText(Object)} method of the list label provider is thread-safe. The names of the
+     * items are then computed in parallel and in background while the dialog opens, instead of in the thread building the dialog.
+     * 
+     * @return this builder.
+     */
+    public FilteredListSelectionDialogBuilder threadSafeLabelProvider() {
+        this.threadSafeLabelProvider = true;
+        return this;
+    }
+
+    /**
+     * Remembers the items selected in the dialogs sharing the settings key, showing first the items selected more often and more
+     * recently (when using fuzzy matching, among the items equally relevant). The history is persisted in the plug-in state location
+     * and loaded and saved in background; items are identified across sessions by the keys returned by a function, which must be
+     * stable and thread-safe.
+     * 
+     * @param historyKeyFunction
+     *            the function returning the key of an item.
+     * @return this builder.
+     */
+    public FilteredListSelectionDialogBuilder history(Function<Object, String> historyKeyFunction) {
+        this.historyKeyFunction = Preconditions.checkNotNull(historyKeyFunction);
+        return this;
+    }
+
+    /**
+     * Matches items using fuzzy matching instead of glob patterns, showing at most {@value #DEFAULT_FUZZY_LIMIT} items.
+     * 
+     * @return this builder.
+     * @see #fuzzy(int)
+     */
+    public FilteredListSelectionDialogBuilder fuzzy() {
+        return fuzzy(DEFAULT_FUZZY_LIMIT);
+    }
+
+    /**
+     * Matches items using fuzzy matching instead of glob patterns: an item matches if its name contains all the characters of the
+     * pattern in order, and items are ordered by decreasing relevance, rewarding characters matched at word boundaries, CamelCase
+     * humps and consecutive positions. Only the most relevant items are shown; all the items are shown if the pattern is empty.
+     * 
+     * @param limit
+     *            the maximum number of items shown.
+     * @return this builder.
+     */
+    public FilteredListSelectionDialogBuilder fuzzy(int limit) {
+        Preconditions.checkArgument(limit > 0);
+        this.fuzzyLimit = limit;
+        return this;
+    }
+
     /**
      * Builds the dialog.
      * 
@@ -175,21 +254,129 @@ public final class FilteredListSelectionDialogBuilder {
         Preconditions.checkNotNull(message);
         Preconditions.checkNotNull(items);
         Preconditions.checkNotNull(listLabelProvider);
+        Preconditions.checkState((historyKeyFunction == null) || (settingsKey != null), "the history requires a settings key");
+        final boolean fuzzy = fuzzyLimit > 0;
+        final Future<ElementNames> elementNames = threadSafeLabelProvider ? ElementNames.computeInBackground(items,
+                listLabelProvider) : ElementNames.compute(items, listLabelProvider);
+        final int fuzzyLimit = this.fuzzyLimit;
+        final Function<Object, String> historyKeyFunction = this.historyKeyFunction;
+        final SelectionHistoryStore history = (historyKeyFunction != null) ? SelectionHistoryStore.get(settingsKey) : null;
         FilteredItemsSelectionDialog dialog = new FilteredItemsSelectionDialog(shell, multiSelection) {
 
+            /** The names of the items, resolved once. */
+            private ElementNames names;
+
+            /** The label provider returning the names of the items. */
+            private ILabelProvider namesLabelProvider;
+
+            /** The history keys of the items, by item index, computed once. */
+            private String[] historyKeys;
+
+            /** The index of the item names, lazily built by the filter job. */
+            private ItemNameIndex index;
+
+            /** The filter of the last completed fill, if using fuzzy matching. */
+            private ItemsFilter lastFilter;
+
+            /** The indices of the items matched by the last completed fill, if using fuzzy matching. */
+            private int[] lastMatches;
+
+            /** The scores of the items shown by the last fill, if using fuzzy matching. */
+            private volatile Map<Object, Integer> scores = ImmutableMap.of();
+
+            /** The comparator of the items shown by the last fill, created once for each fill. */
+            private volatile Comparator<Object> itemsComparator;
+
             @Override
             protected IStatus validateItem(Object item) {
                 return Status.OK_STATUS;
             }
 
+            /**
+             * Returns the comparator built by the last fill. The dialog invokes this method for each comparison, so the comparator
+             * must not be created here.
+             */
             @Override
             protected Comparator<?> getItemsComparator() {
-                return new DefaultItemsComparator();
+                Comparator<Object> comparator = itemsComparator;
+                if (comparator == null) {
+                    comparator = createItemsComparator();
+                    itemsComparator = comparator;
+                }
+                return comparator;
+            }
+
+            private Comparator<Object> createItemsComparator() {
+                final Comparator<Object> labelComparator = getHistoryComparator(new LabelProviderComparator(getNamesLabelProvider()));
+                if (!fuzzy) {
+                    return labelComparator;
+                }
+                final Map<Object, Integer> itemScores = scores;
+                return new Comparator<Object>() {
+                    @Override
+                    public int compare(Object o1, Object o2) {
+                        int score1 = Objects.firstNonNull(itemScores.get(o1), NameScorer.NO_MATCH);
+                        int score2 = Objects.firstNonNull(itemScores.get(o2), NameScorer.NO_MATCH);
+                        if (score1 != score2) {
+                            return (score1 > score2) ? -1 : 1;
+                        }
+                        return labelComparator.compare(o1, o2);
+                    }
+                };
+            }
+
+            /**
+             * Returns a comparator ordering items by decreasing history score, then by another comparator. The scores are a snapshot
+             * of the history taken when the comparator is created, once for each fill, and the history keys of the items are
+             * computed only once.
+             */
+            private Comparator<Object> getHistoryComparator(final Comparator<Object> comparator) {
+                Map<String, Double> historyScores = (history != null) ? history.getScores() : ImmutableMap.<String, Double> of();
+                if (historyScores.isEmpty()) {
+                    return comparator;
+                }
+                String[] keys = getHistoryKeys();
+                final Map<Object, Double> itemScores = new IdentityHashMap<Object, Double>();
+                for (int i = 0; i < keys.length; i++) {
+                    Double score = historyScores.get(keys[i]);
+                    if (score != null) {
+                        itemScores.put(items.get(i), score);
+                    }
+                }
+                return new Comparator<Object>() {
+                    @Override
+                    public int compare(Object o1, Object o2) {
+                        double score1 = Objects.firstNonNull(itemScores.get(o1), 0.0);
+                        double score2 = Objects.firstNonNull(itemScores.get(o2), 0.0);
+                        int result = Double.compare(score2, score1);
+                        return (result != 0) ? result : comparator.compare(o1, o2);
+                    }
+                };
+            }
+
+            private synchronized String[] getHistoryKeys() {
+                if (historyKeys == null) {
+                    historyKeys = new String[items.size()];
+                    for (int i = 0; i < historyKeys.length; i++) {
+                        historyKeys[i] = historyKeyFunction.apply(items.get(i));
+                    }
+                }
+                return historyKeys;
+            }
+
+            @Override
+            protected void okPressed() {
+                super.okPressed();
+                Object[] result = getResult();
+                if ((history != null) && (result != null)) {
+                    history.record(Lists.transform(Arrays.asList(result), historyKeyFunction));
+                }
             }
 
             @Override
             public String getElementName(Object item) {
-                return Strings.nullToEmpty(listLabelProvider.getText(item));
+                String name = getNames().get(item);
+                return (name != null) ? name : Strings.nullToEmpty(listLabelProvider.getText(item));
             }
 
             @Override
@@ -200,14 +387,152 @@ public final class FilteredListSelectionDialogBuilder {
             @Override
             protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
                     IProgressMonitor progressMonitor) throws CoreException {
-                progressMonitor.beginTask("Filling item list", items.size());
-                for (Object item : items) {
-                    if (itemsFilter.isConsistentItem(item)) {
-                        contentProvider.add(item, itemsFilter);
+                long start = FILL_TIMER.start();
+                try {
+                    int[] candidates = getCandidates(itemsFilter);
+                    int count = (candidates != null) ? candidates.length : items.size();
+                    progressMonitor.beginTask("Filling item list", count);
+                    int[] matches;
+                    if (fuzzy) {
+                        matches = rank(candidates, contentProvider, itemsFilter, progressMonitor);
+                    } else if ((items.size() >= INDEX_THRESHOLD) && (itemsFilter instanceof DefaultItemsFilter)) {
+                        final DefaultItemsFilter filter = (DefaultItemsFilter) itemsFilter;
+                        matches = getIndex().match(candidates, new Predicate<String>() {
+                            @Override
+                            public boolean apply(String name) {
+                                return filter.matchesName(name);
+                            }
+                        }, progressMonitor);
+                    } else {
+                        matches = match(candidates, itemsFilter, progressMonitor);
+                    }
+                    if (matches != null) {
+                        if (fuzzy) {
+                            setLastMatches(itemsFilter, matches);
+                        } else {
+                            for (int itemIndex : matches) { // the content provider is not thread-safe
+                                contentProvider.add(items.get(itemIndex), itemsFilter);
+                            }
+                        }
+                    }
+                    itemsComparator = createItemsComparator();
+                    progressMonitor.done();
+                } finally {
+                    FILL_TIMER.stop(start);
+                }
+            }
+
+            /**
+             * Scores the candidates with fuzzy matching and adds the most relevant ones to the content provider. Returns all the
+             * matching items.
+             */
+            private int[] rank(int[] candidates, AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+                    IProgressMonitor progressMonitor) {
+                FuzzyMatcher matcher = new FuzzyMatcher(itemsFilter.getPattern());
+                int[] candidateScores = ItemNameIndex.score(getNames().getAll(), candidates, matcher, progressMonitor);
+                if (candidateScores == null) {
+                    return null;
+                }
+                int[] matches = new int[candidateScores.length];
+                int[] matchScores = new int[candidateScores.length];
+                int matchCount = 0;
+                for (int i = 0; i < candidateScores.length; i++) {
+                    if (candidateScores[i] != NameScorer.NO_MATCH) {
+                        matches[matchCount] = (candidates != null) ? candidates[i] : i;
+                        matchScores[matchCount++] = candidateScores[i];
+                    }
+                }
+                matches = Arrays.copyOf(matches, matchCount);
+                matchScores = Arrays.copyOf(matchScores, matchCount);
+                int[] top = matcher.isEmpty() ? null : FuzzyMatcher.selectTop(matchScores, fuzzyLimit); // positions in matches
+                int shownCount = (top != null) ? top.length : matchCount;
+                Map<Object, Integer> itemScores = new IdentityHashMap<Object, Integer>(shownCount);
+                for (int i = 0; i < shownCount; i++) {
+                    int position = (top != null) ? top[i] : i;
+                    itemScores.put(items.get(matches[position]), matchScores[position]);
+                }
+                scores = itemScores;
+                for (int i = 0; i < shownCount; i++) {
+                    contentProvider.add(items.get(matches[(top != null) ? top[i] : i]), itemsFilter);
+                }
+                return matches;
+            }
+
+            private int[] match(int[] candidates, ItemsFilter itemsFilter, IProgressMonitor progressMonitor) {
+                int count = (candidates != null) ? candidates.length : items.size();
+                int[] matches = new int[count];
+                int matchCount = 0;
+                for (int i = 0; i < count; i++) {
+                    if (progressMonitor.isCanceled()) {
+                        return null;
+                    }
+                    int itemIndex = (candidates != null) ? candidates[i] : i;
+                    Object item = items.get(itemIndex);
+                    if (itemsFilter.isConsistentItem(item) && itemsFilter.matchItem(item)) {
+                        matches[matchCount++] = itemIndex;
                     }
                     progressMonitor.worked(1);
                 }
-                progressMonitor.done();
+                return Arrays.copyOf(matches, matchCount);
+            }
+
+            /**
+             * Returns the indices of the items to be matched: with fuzzy matching, the matches of the last fill if the filter is
+             * narrower than its filter; otherwise the candidates provided by the index. Without fuzzy matching the dialog narrows the
+             * previous result by itself when a filter is a sub-filter of the previous one, without calling
+             * {@link #fillContentProvider}.
+             */
+            private int[] getCandidates(ItemsFilter itemsFilter) {
+                if (fuzzy) {
+                    synchronized (this) {
+                        if ((lastFilter != null) && isNarrower(itemsFilter, lastFilter)) {
+                            return lastMatches;
+                        }
+                    }
+                }
+                if (!fuzzy && (items.size() >= INDEX_THRESHOLD)) {
+                    return getIndex().getCandidates(itemsFilter.getPattern(), itemsFilter.getMatchRule());
+                }
+                return null;
+            }
+
+            /**
+             * Returns whether a fuzzy filter matches a subset of the items matched by another fuzzy filter: names matching a query
+             * match all its prefixes.
+             */
+            private boolean isNarrower(ItemsFilter itemsFilter, ItemsFilter otherFilter) {
+                String query = FuzzyMatcher.normalize(itemsFilter.getPattern());
+                return query.startsWith(FuzzyMatcher.normalize(otherFilter.getPattern()));
+            }
+
+            private synchronized void setLastMatches(ItemsFilter itemsFilter, int[] matches) {
+                lastFilter = itemsFilter;
+                lastMatches = matches;
+            }
+
+            private synchronized ItemNameIndex getIndex() {
+                if (index == null) {
+                    index = ItemNameIndex.build(getNames().getAll());
+                }
+                return index;
+            }
+
+            private synchronized ElementNames getNames() {
+                if (names == null) {
+                    names = ElementNames.get(elementNames);
+                }
+                return names;
+            }
+
+            /**
+             * Returns the label provider returning the names of the items. Since names are computed once, comparing them needs no
+             * caching and is thread-safe.
+             */
+            private synchronized ILabelProvider getNamesLabelProvider() {
+                if (namesLabelProvider == null) {
+                    namesLabelProvider = getNames().asLabelProvider(listLabelProvider);
+                }
+                return namesLabelProvider;
             }
 
             @Override
@@ -235,21 +560,24 @@ public final class FilteredListSelectionDialogBuilder {
                     return true;
                 }
 
+                private final FuzzyMatcher fuzzyMatcher = fuzzy ? new FuzzyMatcher(getPattern()) : null;
+
                 @Override
                 public boolean matchItem(Object item) {
+                    if (fuzzy) {
+                        return fuzzyMatcher.score(getElementName(item)) != NameScorer.NO_MATCH;
+                    }
                     return matches(getElementName(item));
                 }
-            }
-
-            class DefaultItemsComparator implements Comparator<Object> {
 
                 @Override
-                public int compare(Object o1, Object o2) {
-                    String s1 = Strings.nullToEmpty(listLabelProvider.getText(o1));
-                    String s2 = Strings.nullToEmpty(listLabelProvider.getText(o2));
-                    return s1.compareToIgnoreCase(s2);
+                public boolean isSubFilter(ItemsFilter filter) {
+                    return !fuzzy && super.isSubFilter(filter); // only the most relevant fuzzy matches are shown
                 }
 
+                boolean matchesName(String name) {
+                    return matches(name);
+                }
             }
 
         };
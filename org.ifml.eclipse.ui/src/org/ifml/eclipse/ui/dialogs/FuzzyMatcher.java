@@ -0,0 +1,195 @@
+package org.ifml.eclipse.ui.dialogs;
+
+/**
+ * A fuzzy matcher of element names, in the style of fzf.
+ * <p>
+ * A name matches if it contains all the characters of the query, in order and ignoring case differences. The score of a matching name
+ * rewards the query characters matched at word boundaries (the beginning of the name, after a separator or at a CamelCase hump) and in
+ * consecutive positions, and penalizes the gaps between them; the matched characters are the shortest window of the name containing
+ * the query as a subsequence. The wildcard characters of glob patterns and the exact match suffixes ({@code <} and space) are ignored.
+ */
+final class FuzzyMatcher implements ItemNameIndex.NameScorer {
+
+    private static final int SCORE_MATCH = 16;
+
+    private static final int BONUS_BOUNDARY = 8;
+
+    private static final int BONUS_FIRST_CHAR = 8;
+
+    private static final int BONUS_CONSECUTIVE = 8;
+
+    private static final int PENALTY_GAP_START = 3;
+
+    private static final int PENALTY_GAP_EXTENSION = 1;
+
+    private final char[] query;
+
+    /**
+     * Creates a new matcher.
+     * 
+     * @param pattern
+     *            the pattern entered by the user.
+     */
+    FuzzyMatcher(String pattern) {
+        this.query = normalize(pattern).toCharArray();
+    }
+
+    /**
+     * Returns the query matched by a pattern: the pattern without wildcards and exact match suffixes, with case differences folded.
+     * 
+     * @param pattern
+     *            the pattern.
+     * @return the query.
+     */
+    static String normalize(String pattern) {
+        StringBuilder query = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if ((c != '*') && (c != '?') && (c != '<') && (c != ' ')) {
+                query.append(fold(c));
+            }
+        }
+        return query.toString();
+    }
+
+    /**
+     * Returns whether the query is empty, that is every name matches with the same score.
+     * 
+     * @return {@code true} if the query is empty.
+     */
+    boolean isEmpty() {
+        return query.length == 0;
+    }
+
+    @Override
+    public int score(String name) {
+        if (query.length == 0) {
+            return 0;
+        }
+        int end = -1;
+        for (int i = 0, q = 0; i < name.length(); i++) { // the leftmost end of a match
+            if ((fold(name.charAt(i)) == query[q]) && (++q == query.length)) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            return NO_MATCH;
+        }
+        int start = end;
+        for (int i = end, q = query.length - 1; i >= 0; i--) { // the shortest window ending there
+            if ((fold(name.charAt(i)) == query[q]) && (--q < 0)) {
+                start = i;
+                break;
+            }
+        }
+        int score = 0;
+        int previous = -2;
+        for (int i = start, q = 0; (i <= end) && (q < query.length); i++) {
+            if (fold(name.charAt(i)) != query[q]) {
+                continue;
+            }
+            score += SCORE_MATCH;
+            if (isBoundary(name, i)) {
+                score += (q == 0) ? BONUS_BOUNDARY + BONUS_FIRST_CHAR : BONUS_BOUNDARY;
+            }
+            if (previous == i - 1) {
+                score += BONUS_CONSECUTIVE;
+            } else if (q > 0) {
+                score -= PENALTY_GAP_START + PENALTY_GAP_EXTENSION * (i - previous - 2);
+            }
+            previous = i;
+            q++;
+        }
+        return score;
+    }
+
+    /**
+     * Selects the best scores, keeping a bounded heap while scanning them.
+     * 
+     * @param scores
+     *            the scores.
+     * @param limit
+     *            the maximum number of scores to be selected.
+     * @return the positions of the selected scores, best first; positions with the same score keep their order.
+     */
+    static int[] selectTop(int[] scores, int limit) {
+        int[] heap = new int[Math.min(limit, scores.length)]; // positions, the worst at the root
+        int size = 0;
+        for (int position = 0; position < scores.length; position++) {
+            if (size < heap.length) {
+                heap[size] = position;
+                siftUp(heap, size++, scores);
+            } else if ((size > 0) && isWorse(heap[0], position, scores)) {
+                heap[0] = position;
+                siftDown(heap, size, scores);
+            }
+        }
+        int[] top = new int[size];
+        while (size > 0) {
+            top[--size] = heap[0];
+            heap[0] = heap[size];
+            siftDown(heap, size, scores);
+        }
+        return top;
+    }
+
+    /** Returns whether the item at the first position ranks after the one at the second position. */
+    private static boolean isWorse(int position1, int position2, int[] scores) {
+        return (scores[position1] < scores[position2]) || ((scores[position1] == scores[position2]) && (position1 > position2));
+    }
+
+    private static void siftUp(int[] heap, int index, int[] scores) {
+        int position = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isWorse(position, heap[parent], scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = position;
+    }
+
+    private static void siftDown(int[] heap, int size, int[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int position = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if ((child + 1 < size) && isWorse(heap[child + 1], heap[child], scores)) {
+                child++;
+            }
+            if (!isWorse(heap[child], position, scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = position;
+    }
+
+    private static boolean isBoundary(String name, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char previous = name.charAt(index - 1);
+        char current = name.charAt(index);
+        if (!Character.isLetterOrDigit(previous)) {
+            return Character.isLetterOrDigit(current);
+        }
+        return (Character.isLowerCase(previous) && Character.isUpperCase(current))
+                || (Character.isDigit(previous) && Character.isLetter(current));
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+}
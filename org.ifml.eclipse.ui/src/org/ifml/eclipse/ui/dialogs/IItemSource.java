@@ -0,0 +1,27 @@
+package org.ifml.eclipse.ui.dialogs;
+
+/**
+ * The interface of objects providing the items of a selection dialog by index, so that items are materialized only when displayed.
+ * <p>
+ * Both methods are invoked in the UI thread, the latter only for the visible rows, thus they should be fast and must not copy the
+ * whole set of items.
+ */
+public interface IItemSource {
+
+    /**
+     * Returns the number of items.
+     * 
+     * @return the number of items.
+     */
+    int size();
+
+    /**
+     * Returns an item.
+     * 
+     * @param index
+     *            the index of the item, between {@code 0} (inclusive) and {@link #size()} (exclusive).
+     * @return the item.
+     */
+    Object get(int index);
+
+}
@@ -0,0 +1,356 @@
+package org.ifml.eclipse.ui.dialogs;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.ui.dialogs.SearchPattern;
+import org.ifml.eclipse.ui.Workers;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * An index of the names of the items of a filtered selection dialog, providing the candidate items for a pattern.
+ * <p>
+ * Names are compared ignoring case differences, as done by {@link SearchPattern}. The index keeps the item indices ordered by name, in
+ * order to find the names starting with a prefix by binary search, and the postings of each trigram (three consecutive characters)
+ * occurring in the names, in order to find the names containing a string by intersecting the postings of its trigrams. Candidates are a
+ * superset of the matching items: they must still be matched against the pattern.
+ */
+final class ItemNameIndex {
+
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final String[] names;
+
+    /** The item indices ordered by name. */
+    private final int[] sortedIndices;
+
+    /** The ordered item indices whose names contain each trigram. */
+    private final Map<Long, int[]> postings;
+
+    private ItemNameIndex(String[] names, int[] sortedIndices, Map<Long, int[]> postings) {
+        this.names = names;
+        this.sortedIndices = sortedIndices;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the index of some names.
+     * 
+     * @param names
+     *            the names of the items, by item index.
+     * @return the index.
+     */
+    static ItemNameIndex build(final String[] names) {
+        Integer[] boxedIndices = new Integer[names.length];
+        for (int i = 0; i < names.length; i++) {
+            boxedIndices[i] = i;
+        }
+        Workers.sort(boxedIndices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return compareFolded(names[i1], names[i2]);
+            }
+        });
+        int[] sortedIndices = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            sortedIndices[i] = boxedIndices[i];
+        }
+        Map<Long, PostingsBuilder> builders = Maps.newHashMap();
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            for (int j = 0; j + 3 <= name.length(); j++) {
+                Long trigram = trigram(name, j);
+                PostingsBuilder builder = builders.get(trigram);
+                if (builder == null) {
+                    builder = new PostingsBuilder();
+                    builders.put(trigram, builder);
+                }
+                builder.add(i);
+            }
+        }
+        Map<Long, int[]> postings = Maps.newHashMapWithExpectedSize(builders.size());
+        for (Map.Entry<Long, PostingsBuilder> entry : builders.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return new ItemNameIndex(names, sortedIndices, postings);
+    }
+
+    /**
+     * Returns the candidate items for a pattern.
+     * 
+     * @param pattern
+     *            the pattern.
+     * @param matchRule
+     *            the match rule of the pattern, as defined by {@link SearchPattern}.
+     * @return the ordered indices of the candidate items, or {@code null} if all the items are candidates.
+     */
+    @Nullable
+    int[] getCandidates(String pattern, int matchRule) {
+        if (pattern.indexOf('\\') >= 0) {
+            return null; // escaped wildcards
+        }
+        String literal = stripExactMatchSuffix(pattern);
+        switch (matchRule & ~SearchPattern.RULE_CASE_SENSITIVE) {
+        case SearchPattern.RULE_EXACT_MATCH:
+        case SearchPattern.RULE_PREFIX_MATCH:
+            return getPrefixCandidates(literal);
+        case SearchPattern.RULE_CAMELCASE_MATCH:
+            return getPrefixCandidates(literal.substring(0, Math.min(literal.length(), 1)));
+        case SearchPattern.RULE_PATTERN_MATCH:
+            return getPatternCandidates(literal);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Matches the names of some items, splitting them in chunks matched in parallel as
+     * {@link #score(String[], int[], NameScorer, IProgressMonitor)}. The progress monitor is notified, and checked for cancellation, in the calling
+     * thread after each chunk.
+     * 
+     * @param candidates
+     *            the ordered indices of the items to be matched, or {@code null} to match all the items.
+     * @param predicate
+     *            the thread-safe predicate matching the item names.
+     * @param progressMonitor
+     *            the progress monitor, worked once for each matched item.
+     * @return the ordered indices of the matching items, or {@code null} if cancelled.
+     */
+    @Nullable
+    int[] match(@Nullable int[] candidates, final Predicate<String> predicate, IProgressMonitor progressMonitor) {
+        int[] scores = score(names, candidates, new NameScorer() {
+            @Override
+            public int score(String name) {
+                return predicate.apply(name) ? 0 : NO_MATCH;
+            }
+        }, progressMonitor);
+        if (scores == null) {
+            return null;
+        }
+        int[] matches = new int[scores.length];
+        int matchCount = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] != NameScorer.NO_MATCH) {
+                matches[matchCount++] = (candidates != null) ? candidates[i] : i;
+            }
+        }
+        return Arrays.copyOf(matches, matchCount);
+    }
+
+    /**
+     * Scores the names of some items, splitting them in chunks scored in parallel by
+     * {@link Workers#invokeChunks(int, int, Workers.RangeTask, IProgressMonitor)}. The progress monitor is notified, and checked for
+     * cancellation, in the calling thread after each chunk. Does not need an index.
+     * 
+     * @param names
+     *            the names of the items, by item index.
+     * @param candidates
+     *            the ordered indices of the items to be scored, or {@code null} to score all the items.
+     * @param scorer
+     *            the thread-safe scorer of the item names.
+     * @param progressMonitor
+     *            the progress monitor, worked once for each scored item.
+     * @return the scores, in the order of the candidates, or {@code null} if cancelled.
+     */
+    @Nullable
+    static int[] score(final String[] names, @Nullable final int[] candidates, final NameScorer scorer,
+            IProgressMonitor progressMonitor) {
+        final int count = (candidates != null) ? candidates.length : names.length;
+        final int[] scores = new int[count];
+        boolean completed = Workers.invokeChunks(count, MIN_CHUNK_SIZE, new Workers.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = scorer.score(names[(candidates != null) ? candidates[i] : i]);
+                }
+            }
+        }, progressMonitor);
+        return completed ? scores : null;
+    }
+
+    @Nullable
+    private int[] getPatternCandidates(String pattern) {
+        int[] candidates = null;
+        int start = 0;
+        for (int i = 0; i <= pattern.length(); i++) {
+            if ((i == pattern.length()) || (pattern.charAt(i) == '*') || (pattern.charAt(i) == '?')) {
+                candidates = intersect(candidates, getContainingCandidates(pattern.substring(start, i)));
+                if ((candidates != null) && (candidates.length == 0)) {
+                    return candidates;
+                }
+                start = i + 1;
+            }
+        }
+        return candidates;
+    }
+
+    @Nullable
+    private int[] getPrefixCandidates(String prefix) {
+        if (prefix.isEmpty()) {
+            return null;
+        }
+        int low = 0;
+        int high = sortedIndices.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareFolded(names[sortedIndices[middle]], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int end = low;
+        while ((end < sortedIndices.length) && startsWithFolded(names[sortedIndices[end]], prefix)) {
+            end++;
+        }
+        int[] candidates = Arrays.copyOfRange(sortedIndices, low, end);
+        Arrays.sort(candidates);
+        return candidates;
+    }
+
+    @Nullable
+    private int[] getContainingCandidates(String string) {
+        if (string.length() < 3) {
+            return null;
+        }
+        List<int[]> trigramPostings = Lists.newArrayList();
+        for (int j = 0; j + 3 <= string.length(); j++) {
+            int[] trigramCandidates = postings.get(trigram(string, j));
+            if (trigramCandidates == null) {
+                return NO_CANDIDATES;
+            }
+            trigramPostings.add(trigramCandidates);
+        }
+        Collections.sort(trigramPostings, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] p1, int[] p2) {
+                return p1.length - p2.length; // the shortest postings first
+            }
+        });
+        int[] candidates = null;
+        for (int[] trigramCandidates : trigramPostings) {
+            candidates = intersect(candidates, trigramCandidates);
+        }
+        return candidates;
+    }
+
+    @Nullable
+    private static int[] intersect(@Nullable int[] first, @Nullable int[] second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        }
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        for (int i = 0, j = 0; (i < first.length) && (j < second.length);) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static String stripExactMatchSuffix(String pattern) {
+        int end = pattern.length();
+        while ((end > 0) && ((pattern.charAt(end - 1) == '<') || (pattern.charAt(end - 1) == ' '))) {
+            end--;
+        }
+        return pattern.substring(0, end);
+    }
+
+    private static Long trigram(String string, int start) {
+        return ((long) fold(string.charAt(start)) << 32) | ((long) fold(string.charAt(start + 1)) << 16)
+                | fold(string.charAt(start + 2));
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int compareFolded(String s1, String s2) {
+        int length = Math.min(s1.length(), s2.length());
+        for (int i = 0; i < length; i++) {
+            char c1 = fold(s1.charAt(i));
+            char c2 = fold(s2.charAt(i));
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return s1.length() - s2.length();
+    }
+
+    private static boolean startsWithFolded(String string, String prefix) {
+        if (string.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (fold(string.charAt(i)) != fold(prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The interface of objects scoring item names.
+     */
+    interface NameScorer {
+
+        /** The score of names not matching. */
+        int NO_MATCH = Integer.MIN_VALUE;
+
+        /**
+         * Scores a name.
+         * 
+         * @param name
+         *            the name.
+         * @return the score, higher for better matches, or {@link #NO_MATCH}.
+         */
+        int score(String name);
+
+    }
+
+    /**
+     * A growable array of ordered item indices, ignoring consecutive duplicates.
+     */
+    private static final class PostingsBuilder {
+
+        private int[] indices = new int[4];
+
+        private int size;
+
+        private void add(int index) {
+            if ((size > 0) && (indices[size - 1] == index)) {
+                return;
+            }
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(indices, size);
+        }
+
+    }
+
+}
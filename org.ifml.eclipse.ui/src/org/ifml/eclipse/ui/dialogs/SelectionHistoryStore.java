@@ -0,0 +1,290 @@
+package org.ifml.eclipse.ui.dialogs;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.ifml.eclipse.core.runtime.Logs;
+import org.ifml.eclipse.ui.CommonUi;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+
+/**
+ * A persistent history of the items selected in the dialogs sharing a settings key, recording how often and how recently each item has
+ * been selected.
+ * <p>
+ * Items are identified by stable string keys. The history is stored in a small text file in the plug-in state location, loaded in
+ * background when first requested and saved in background, shortly after the last selection, by writing a temporary file that then
+ * replaces the previous one. Until loaded, the history is empty; selections recorded in the meantime are merged with the loaded ones.
+ */
+final class SelectionHistoryStore {
+
+    /** The maximum number of items remembered for each settings key. */
+    static final int MAX_ENTRIES = 256;
+
+    private static final String DIRECTORY_NAME = "selection-history";
+
+    private static final long SAVE_DELAY_MILLIS = 1000;
+
+    /** The age halving the weight of a selection. */
+    private static final double HALF_LIFE_MILLIS = TimeUnit.DAYS.toMillis(14);
+
+    private static final ConcurrentMap<String, SelectionHistoryStore> STORES = Maps.newConcurrentMap();
+
+    private final File file;
+
+    /** The entries by item key, guarded by {@code this}. */
+    private final Map<String, Entry> entries = Maps.newHashMap();
+
+    private volatile boolean loaded;
+
+    private final Job loadJob = new Job("Loading selection history") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            load();
+            return Status.OK_STATUS;
+        }
+    };
+
+    private final Job saveJob = new Job("Saving selection history") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            save();
+            return Status.OK_STATUS;
+        }
+    };
+
+    private SelectionHistoryStore(@Nullable File file) {
+        this.file = file;
+        loadJob.setSystem(true);
+        saveJob.setSystem(true);
+    }
+
+    /**
+     * Returns the history of a settings key, starting to load it if needed.
+     * 
+     * @param settingsKey
+     *            the settings key.
+     * @return the history.
+     */
+    static SelectionHistoryStore get(String settingsKey) {
+        SelectionHistoryStore store = STORES.get(settingsKey);
+        if (store == null) {
+            SelectionHistoryStore newStore = new SelectionHistoryStore(getFile(settingsKey));
+            store = STORES.putIfAbsent(settingsKey, newStore);
+            if (store == null) {
+                store = newStore;
+                store.loadJob.schedule();
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Returns the scores of the items in the history, higher for items selected more often and more recently. Never blocks: returns
+     * an empty map if the history is not loaded yet.
+     * 
+     * @return the scores by item key.
+     */
+    Map<String, Double> getScores() {
+        if (!loaded) {
+            return ImmutableMap.of();
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Map<String, Double> scores = Maps.newHashMapWithExpectedSize(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                scores.put(entry.getKey(), entry.getValue().getScore(now));
+            }
+            return scores;
+        }
+    }
+
+    /**
+     * Records the selection of some items and schedules the history to be saved.
+     * 
+     * @param keys
+     *            the keys of the selected items.
+     */
+    void record(Iterable<String> keys) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (String key : keys) {
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    entries.put(key, new Entry(1, now));
+                } else {
+                    entry.count++;
+                    entry.lastUsed = now;
+                }
+            }
+            trim(now);
+        }
+        if (loaded) {
+            saveJob.schedule(SAVE_DELAY_MILLIS); // rescheduling a waiting job postpones it, coalescing saves
+        }
+    }
+
+    @Nullable
+    private static File getFile(String settingsKey) {
+        try {
+            File directory = CommonUi.getDefault().getStateLocation().append(DIRECTORY_NAME).toFile();
+            return new File(directory, settingsKey.replaceAll("[^A-Za-z0-9._-]", "_") + ".txt");
+        } catch (RuntimeException e) {
+            return null; // not running inside the platform: the history is not persisted
+        }
+    }
+
+    private void load() {
+        Map<String, Entry> loadedEntries = Maps.newHashMap();
+        if (file != null) {
+            BufferedReader in = null;
+            try {
+                in = new BufferedReader(new InputStreamReader(new FileInputStream(file), Charsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] fields = line.split(" ", 3);
+                    if (fields.length == 3) {
+                        loadedEntries.put(unescape(fields[2]), new Entry(Integer.parseInt(fields[0]), Long.parseLong(fields[1])));
+                    }
+                }
+            } catch (FileNotFoundException e) {
+                // no history yet
+            } catch (IOException e) {
+                Logs.logError(e, "unable to load the selection history from " + file, null);
+            } catch (NumberFormatException e) {
+                Logs.logError(e, "corrupted selection history in " + file, null);
+            } finally {
+                Closeables.closeQuietly(in);
+            }
+        }
+        boolean recorded;
+        synchronized (this) {
+            recorded = !entries.isEmpty();
+            for (Map.Entry<String, Entry> loadedEntry : loadedEntries.entrySet()) {
+                Entry entry = entries.get(loadedEntry.getKey());
+                if (entry == null) {
+                    entries.put(loadedEntry.getKey(), loadedEntry.getValue());
+                } else {
+                    entry.count += loadedEntry.getValue().count;
+                    entry.lastUsed = Math.max(entry.lastUsed, loadedEntry.getValue().lastUsed);
+                }
+            }
+            trim(System.currentTimeMillis());
+        }
+        loaded = true;
+        if (recorded) {
+            saveJob.schedule(SAVE_DELAY_MILLIS);
+        }
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        Map<String, Entry> snapshot = Maps.newHashMap();
+        synchronized (this) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                snapshot.put(entry.getKey(), new Entry(entry.getValue().count, entry.getValue().lastUsed));
+            }
+        }
+        File directory = file.getParentFile();
+        directory.mkdirs();
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        Writer out = null;
+        try {
+            out = new OutputStreamWriter(new FileOutputStream(tempFile), Charsets.UTF_8);
+            for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                out.append(Integer.toString(entry.getValue().count)).append(' ');
+                out.append(Long.toString(entry.getValue().lastUsed)).append(' ');
+                out.append(escape(entry.getKey())).append('\n');
+            }
+            out.close();
+            out = null;
+            if (!tempFile.renameTo(file) && (!file.delete() || !tempFile.renameTo(file))) {
+                throw new IOException("unable to replace " + file);
+            }
+        } catch (IOException e) {
+            Logs.logError(e, "unable to save the selection history to " + file, null);
+        } finally {
+            Closeables.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Removes the entries with the lowest scores exceeding {@link #MAX_ENTRIES}. Must be called holding the lock.
+     */
+    private void trim(final long now) {
+        if (entries.size() <= MAX_ENTRIES) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> sortedEntries = Lists.newArrayList(entries.entrySet());
+        Collections.sort(sortedEntries, new Comparator<Map.Entry<String, Entry>>() {
+            @Override
+            public int compare(Map.Entry<String, Entry> e1, Map.Entry<String, Entry> e2) {
+                return Double.compare(e1.getValue().getScore(now), e2.getValue().getScore(now));
+            }
+        });
+        for (Map.Entry<String, Entry> entry : sortedEntries.subList(0, entries.size() - MAX_ENTRIES)) {
+            entries.remove(entry.getKey());
+        }
+    }
+
+    private static String escape(String key) {
+        return key.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String key) {
+        StringBuilder builder = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c == '\\') && (i + 1 < key.length())) {
+                char next = key.charAt(++i);
+                builder.append((next == 'n') ? '\n' : (next == 'r') ? '\r' : next);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final class Entry {
+
+        private int count;
+
+        private long lastUsed;
+
+        private Entry(int count, long lastUsed) {
+            this.count = count;
+            this.lastUsed = lastUsed;
+        }
+
+        private double getScore(long now) {
+            return count * Math.pow(2, -Math.max(now - lastUsed, 0) / HALF_LIFE_MILLIS);
+        }
+
+    }
+
+}
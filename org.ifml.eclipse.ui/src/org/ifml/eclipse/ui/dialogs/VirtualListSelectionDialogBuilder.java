@@ -0,0 +1,262 @@
+package org.ifml.eclipse.ui.dialogs;
+
+import java.util.List;
+
+import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.layout.GridDataFactory;
+import org.eclipse.jface.viewers.DoubleClickEvent;
+import org.eclipse.jface.viewers.IDoubleClickListener;
+import org.eclipse.jface.viewers.ILabelProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.SelectionChangedEvent;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.dialogs.SelectionDialog;
+import org.ifml.eclipse.ui.CommonUi;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+/**
+ * A builder for selection dialogs showing huge sets of items in a virtual table.
+ * <p>
+ * Items are provided by an {@link IItemSource} and are requested only for the rows actually displayed, so that the dialog opens in
+ * constant time and memory regardless of the number of items. Items are shown in the order of the source: neither sorting nor
+ * filtering is supported, since both would require all the items. The result of the dialog is the list of selected items.
+ */
+public final class VirtualListSelectionDialogBuilder {
+
+    private Shell shell;
+
+    private Boolean multiSelection;
+
+    private String settingsKey;
+
+    private String title;
+
+    private String message = "&Select an item:";
+
+    private IItemSource items;
+
+    private ILabelProvider labelProvider;
+
+    /**
+     * Sets the parent shell.
+     * 
+     * @param shell
+     *            the parent shell.
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder shell(Shell shell) {
+        this.shell = shell;
+        return this;
+    }
+
+    /**
+     * Sets the dialog's title.
+     * 
+     * @param title
+     *            the dialog's title.
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder title(String title) {
+        this.title = title;
+        return this;
+    }
+
+    /**
+     * Sets the message to be displayed at the top of this dialog.
+     * 
+     * @param message
+     *            the message to be displayed at the top of this dialog.
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder message(String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Sets the key used to store dialog's settings, in order to persist the location and size of the dialog.
+     * 
+     * @param settingsKey
+     *            the key used to store dialog's settings.
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder settingsKey(String settingsKey) {
+        this.settingsKey = settingsKey;
+        return this;
+    }
+
+    /**
+     * Sets the label provider for the list of elements.
+     * 
+     * @param labelProvider
+     *            the label provider.
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder labelProvider(ILabelProvider labelProvider) {
+        this.labelProvider = labelProvider;
+        return this;
+    }
+
+    /**
+     * Allows the selection of multiple elements.
+     * 
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder multiSelection() {
+        this.multiSelection = true;
+        return this;
+    }
+
+    /**
+     * Allows the selection of a single element.
+     * 
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder singleSelection() {
+        this.multiSelection = false;
+        return this;
+    }
+
+    /**
+     * Sets the source of the items. Items are not copied nor ordered.
+     * 
+     * @param items
+     *            the source of the items.
+     * @return this builder.
+     */
+    public VirtualListSelectionDialogBuilder items(IItemSource items) {
+        this.items = items;
+        return this;
+    }
+
+    /**
+     * Builds the dialog.
+     * 
+     * @return the dialog.
+     */
+    public SelectionDialog build() {
+        Preconditions.checkNotNull(shell);
+        Preconditions.checkNotNull(multiSelection);
+        Preconditions.checkNotNull(title);
+        Preconditions.checkNotNull(message);
+        Preconditions.checkNotNull(items);
+        Preconditions.checkNotNull(labelProvider);
+        VirtualListSelectionDialog dialog = new VirtualListSelectionDialog(shell, items, labelProvider, multiSelection);
+        dialog.setTitle(title);
+        dialog.setMessage(message);
+        if (settingsKey != null) {
+            dialog.setDialogBoundsSettings(Dialogs.getDialogSettings(CommonUi.getDefault(), settingsKey),
+                    Dialog.DIALOG_PERSISTLOCATION | Dialog.DIALOG_PERSISTSIZE);
+        }
+        return dialog;
+    }
+
+    private static final class VirtualListSelectionDialog extends SelectionDialog {
+
+        private static final int WIDTH_IN_CHARS = 60;
+
+        private static final int HEIGHT_IN_CHARS = 18;
+
+        private final IItemSource items;
+
+        private final ILabelProvider labelProvider;
+
+        private final boolean multiSelection;
+
+        private TableViewer viewer;
+
+        private VirtualListSelectionDialog(Shell shell, IItemSource items, ILabelProvider labelProvider, boolean multiSelection) {
+            super(shell);
+            this.items = items;
+            this.labelProvider = labelProvider;
+            this.multiSelection = multiSelection;
+        }
+
+        @Override
+        protected Control createDialogArea(Composite parent) {
+            Composite composite = (Composite) super.createDialogArea(parent);
+            createMessageArea(composite);
+            int style = SWT.VIRTUAL | SWT.BORDER | SWT.H_SCROLL | SWT.V_SCROLL | (multiSelection ? SWT.MULTI : SWT.SINGLE);
+            viewer = new TableViewer(composite, style);
+            viewer.setUseHashlookup(true);
+            viewer.setContentProvider(new ILazyContentProvider() {
+
+                @Override
+                public void updateElement(int index) {
+                    viewer.replace(items.get(index), index);
+                }
+
+                @Override
+                public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+                }
+
+                @Override
+                public void dispose() {
+                }
+
+            });
+            viewer.setLabelProvider(labelProvider);
+            viewer.setInput(items);
+            viewer.setItemCount(items.size());
+            viewer.addSelectionChangedListener(new ISelectionChangedListener() {
+                @Override
+                public void selectionChanged(SelectionChangedEvent event) {
+                    updateOkButton();
+                }
+            });
+            viewer.addDoubleClickListener(new IDoubleClickListener() {
+                @Override
+                public void doubleClick(DoubleClickEvent event) {
+                    if (isSelectionValid()) {
+                        okPressed();
+                    }
+                }
+            });
+            GridDataFactory.fillDefaults().grab(true, true)
+                    .hint(convertWidthInCharsToPixels(WIDTH_IN_CHARS), convertHeightInCharsToPixels(HEIGHT_IN_CHARS))
+                    .applyTo(viewer.getControl());
+            return composite;
+        }
+
+        @Override
+        protected Control createButtonBar(Composite parent) {
+            Control buttonBar = super.createButtonBar(parent);
+            updateOkButton();
+            return buttonBar;
+        }
+
+        @Override
+        protected void okPressed() {
+            int[] indices = viewer.getTable().getSelectionIndices();
+            List<Object> result = Lists.newArrayListWithCapacity(indices.length);
+            for (int index : indices) {
+                result.add(items.get(index)); // rows selected by range may have never been materialized
+            }
+            setResult(result);
+            super.okPressed();
+        }
+
+        private boolean isSelectionValid() {
+            return viewer.getTable().getSelectionCount() > 0;
+        }
+
+        private void updateOkButton() {
+            Button okButton = getOkButton();
+            if (okButton != null) {
+                okButton.setEnabled(isSelectionValid());
+            }
+        }
+
+    }
+
+}
@@ -12,12 +12,21 @@ import java.awt.image.WritableRaster;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.RGB;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationTimer;
+import org.ifml.eclipse.ui.debug.UiMetrics;
 
 /**
  * Provides utility methods for AWT {@link BufferedImage}s.
  */
 public final class AwtImages {
 
+    private static final OperationTimer TO_BUFFERED_IMAGE_TIMER = UiMetrics.timer(CommonUiDebug.IMAGE, "AwtImages.toBufferedImage");
+
+    private static final OperationTimer TO_IMAGE_DATA_TIMER = UiMetrics.timer(CommonUiDebug.IMAGE, "AwtImages.toImageData");
+
+    private static final OperationTimer RESIZE_TIMER = UiMetrics.timer(CommonUiDebug.IMAGE, "AwtImages.newResizedImage");
+
     private AwtImages() {
     }
 
@@ -29,6 +38,15 @@ public final class AwtImages {
      * @return an AWT buffered image.
      */
     public static BufferedImage toBufferedImage(ImageData data) {
+        long start = TO_BUFFERED_IMAGE_TIMER.start();
+        try {
+            return convertToBufferedImage(data);
+        } finally {
+            TO_BUFFERED_IMAGE_TIMER.stop(start);
+        }
+    }
+
+    private static BufferedImage convertToBufferedImage(ImageData data) {
         ColorModel colorModel = null;
         PaletteData palette = data.palette;
         if (palette.isDirect) {
@@ -112,6 +130,15 @@ public final class AwtImages {
      * @return a SWT image data.
      */
     public static ImageData toImageData(BufferedImage bufferedImage) {
+        long start = TO_IMAGE_DATA_TIMER.start();
+        try {
+            return convertToImageData(bufferedImage);
+        } finally {
+            TO_IMAGE_DATA_TIMER.stop(start);
+        }
+    }
+
+    private static ImageData convertToImageData(BufferedImage bufferedImage) {
         if (bufferedImage.getColorModel() instanceof DirectColorModel) {
             DirectColorModel colorModel = (DirectColorModel) bufferedImage.getColorModel();
             PaletteData palette = new PaletteData(colorModel.getRedMask(), colorModel.getGreenMask(), colorModel.getBlueMask());
@@ -168,6 +195,15 @@ public final class AwtImages {
      * @return the scaled image.
      */
     public static BufferedImage newResizedImage(BufferedImage img, int targetWidth, int targetHeight) {
+        long start = RESIZE_TIMER.start();
+        try {
+            return resize(img, targetWidth, targetHeight);
+        } finally {
+            RESIZE_TIMER.stop(start);
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage img, int targetWidth, int targetHeight) {
         int type = (img.getTransparency() == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
         BufferedImage ret = img;
         int w = img.getWidth();
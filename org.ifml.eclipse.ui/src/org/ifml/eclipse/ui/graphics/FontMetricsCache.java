@@ -0,0 +1,131 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.util.Map;
+
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontMetrics;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationCounter;
+import org.ifml.eclipse.ui.debug.UiMetrics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+
+/**
+ * A cache of the metrics of the fonts used on a display, so that converting between characters and pixels does not allocate a native
+ * {@link GC} each time.
+ * <p>
+ * The cache of a display is created when first requested and released when the display is disposed. It is cleared when a font of the
+ * JFace font registry changes and when the system settings, including the screen resolution, change. Fonts are weakly referenced.
+ * The cache must be used from the UI thread of its display.
+ */
+public final class FontMetricsCache {
+
+    private static final String DATA_KEY = FontMetricsCache.class.getName();
+
+    private static final OperationCounter MISSES = UiMetrics.counter(CommonUiDebug.FONT, "FontMetricsCache.misses");
+
+    private final Display display;
+
+    private final Map<Font, FontMetrics> metrics = new MapMaker().weakKeys().makeMap();
+
+    private FontMetricsCache(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns the cache of a display, creating it if needed. Must be called from the UI thread of the display.
+     * 
+     * @param display
+     *            the display.
+     * @return the cache.
+     */
+    public static FontMetricsCache get(Display display) {
+        Preconditions.checkArgument(!display.isDisposed());
+        FontMetricsCache cache = (FontMetricsCache) display.getData(DATA_KEY);
+        if (cache == null) {
+            final FontMetricsCache newCache = new FontMetricsCache(display);
+            display.setData(DATA_KEY, newCache);
+            onFontsChanged(display, new Runnable() {
+                @Override
+                public void run() {
+                    newCache.clear();
+                }
+            });
+            cache = newCache;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the metrics of a font.
+     * 
+     * @param font
+     *            the font.
+     * @return the font metrics.
+     */
+    public FontMetrics getFontMetrics(Font font) {
+        Preconditions.checkArgument(!font.isDisposed());
+        FontMetrics fontMetrics = metrics.get(font);
+        if (fontMetrics == null) {
+            MISSES.increment();
+            GC gc = new GC(display);
+            try {
+                gc.setFont(font);
+                fontMetrics = gc.getFontMetrics();
+            } finally {
+                gc.dispose();
+            }
+            metrics.put(font, fontMetrics);
+        }
+        return fontMetrics;
+    }
+
+    /**
+     * Removes all the cached metrics.
+     */
+    public void clear() {
+        metrics.clear();
+    }
+
+    /**
+     * Registers a task to be run when the fonts of a display may have changed: when a font of the JFace font registry changes, when
+     * the system settings change and when the display is disposed.
+     * 
+     * @param display
+     *            the display.
+     * @param task
+     *            the task, typically clearing a cache.
+     */
+    static void onFontsChanged(Display display, final Runnable task) {
+        final IPropertyChangeListener fontListener = new IPropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent event) {
+                task.run();
+            }
+        };
+        JFaceResources.getFontRegistry().addListener(fontListener);
+        display.addListener(SWT.Settings, new Listener() {
+            @Override
+            public void handleEvent(Event event) {
+                task.run();
+            }
+        });
+        display.disposeExec(new Runnable() {
+            @Override
+            public void run() {
+                JFaceResources.getFontRegistry().removeListener(fontListener);
+                task.run();
+            }
+        });
+    }
+
+}
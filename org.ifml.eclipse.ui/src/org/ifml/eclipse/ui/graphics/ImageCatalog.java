@@ -39,4 +39,11 @@ final class ImageCatalog implements IImageCatalog {
         registry.remove(key);
     }
 
+    /**
+     * Disposes all the images of this catalog. The catalog must not be used afterwards.
+     */
+    void dispose() {
+        registry.dispose();
+    }
+
 }
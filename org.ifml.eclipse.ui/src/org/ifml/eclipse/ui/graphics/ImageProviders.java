@@ -13,6 +13,10 @@ import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.ifml.eclipse.core.runtime.Logs;
 import org.ifml.eclipse.osgi.Bundles;
 import org.ifml.eclipse.ui.CommonUi;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationCounter;
+import org.ifml.eclipse.ui.debug.OperationTimer;
+import org.ifml.eclipse.ui.debug.UiMetrics;
 import org.osgi.framework.Bundle;
 
 import com.google.common.collect.Sets;
@@ -45,6 +49,11 @@ public final class ImageProviders {
 
     private static final Set<String> MISSING_IMAGES = Sets.newHashSet();
 
+    private static final OperationTimer GET_TIMER = UiMetrics.timer(CommonUiDebug.IMAGE, "ImageProviders.get");
+
+    private static final OperationCounter DESCRIPTOR_CREATIONS = UiMetrics.counter(CommonUiDebug.IMAGE,
+            "ImageProviders.descriptorCreations");
+
     private ImageProviders() {
     }
 
@@ -58,9 +67,14 @@ public final class ImageProviders {
      * @return the image.
      */
     public static <T extends Enum<T> & IImageProvider> Image get(T imageProvider) {
-        imageProvider.getDescriptor(); // forces description creation if required
-        String key = getKey(imageProvider, false);
-        return CommonUi.getDefault().getImageRegistry().get(key);
+        long start = GET_TIMER.start();
+        try {
+            imageProvider.getDescriptor(); // forces description creation if required
+            String key = getKey(imageProvider, false);
+            return CommonUi.getDefault().getImageRegistry().get(key);
+        } finally {
+            GET_TIMER.stop(start);
+        }
     }
 
     /**
@@ -289,6 +303,7 @@ public final class ImageProviders {
     }
 
     private static <T extends Enum<T> & IImageProvider> ImageDescriptor createDescriptor(T imageProvider, Bundle bundle) {
+        DESCRIPTOR_CREATIONS.increment();
         String path = getPath(imageProvider);
         ImageDescriptor descr = AbstractUIPlugin.imageDescriptorFromPlugin(bundle.getSymbolicName(), path);
         if (descr == null) {
@@ -311,12 +326,12 @@ public final class ImageProviders {
                 (bottomRightOverlayProvider != null) ? bottomRightOverlayProvider.getDescriptor() : null });
     }
 
-    private static <T extends Enum<T> & IImageProvider> String getKey(T imageProvider, boolean disabled) {
+    static <T extends Enum<T> & IImageProvider> String getKey(T imageProvider, boolean disabled) {
         return imageProvider.getDeclaringClass().getName() + '.' + imageProvider.name() + (disabled ? ".disabled" : "");
     }
 
     @SuppressWarnings("unchecked")
-    private static <T extends Enum<T> & IImageProvider> String getCompositeKey(T imageProvider, IImageProvider topLeftOverlayProvider,
+    static <T extends Enum<T> & IImageProvider> String getCompositeKey(T imageProvider, IImageProvider topLeftOverlayProvider,
             IImageProvider topRightOverlayProvider, IImageProvider bottomRightOverlayProvider,
             IImageProvider bottomLeftOverlayProvider, boolean disabled) {
         checkArgument(topLeftOverlayProvider == null || topLeftOverlayProvider instanceof Enum);
@@ -0,0 +1,278 @@
+package org.ifml.eclipse.ui.graphics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationCounter;
+import org.ifml.eclipse.ui.debug.UiMetrics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Measures the extent of strings drawn on a display, caching the extents of the most recently measured strings.
+ * <p>
+ * Strings not in the cache are measured by a native {@link GC}, created once for each font and each batch of strings. The cache of a
+ * display is bounded to {@value #MAX_CACHED_EXTENTS} extents, evicting the least recently used ones, and is cleared when the fonts
+ * may have changed (see {@link FontMetricsCache}). The measurer must be used from the UI thread of its display.
+ * <p>
+ * Widths can also be estimated, summing the advance widths of the characters taken from a table built once for each font. Estimates
+ * ignore kerning and are available only for strings made of characters in the table (Latin scripts), without tabs or line breaks;
+ * {@link #maxTextWidth(Collection, Font)} uses them to choose the few strings worth measuring exactly.
+ */
+public final class TextMeasurer {
+
+    /** The maximum number of extents cached for each display. */
+    public static final int MAX_CACHED_EXTENTS = 4096;
+
+    /** The number of strings with the widest estimates measured exactly by {@link #maxTextWidth(Collection, Font)}. */
+    public static final int EXACT_WIDTH_CANDIDATES = 32;
+
+    /** The value returned by {@link #estimateTextWidths(Collection, Font)} for strings whose width cannot be estimated. */
+    public static final int NO_ESTIMATE = -1;
+
+    private static final String DATA_KEY = TextMeasurer.class.getName();
+
+    /** The first character in the advance tables. */
+    private static final char FIRST_TABLE_CHAR = ' ';
+
+    /** The character following the last one in the advance tables: the end of Latin Extended-B. */
+    private static final char TABLE_LIMIT = '\u0250';
+
+    private static final OperationCounter MISSES = UiMetrics.counter(CommonUiDebug.FONT, "TextMeasurer.misses");
+
+    private final Display display;
+
+    private final Map<ExtentKey, Point> extents = new LinkedHashMap<ExtentKey, Point>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ExtentKey, Point> eldest) {
+            return size() > MAX_CACHED_EXTENTS;
+        }
+    };
+
+    private final Map<Font, int[]> advanceTables = new MapMaker().weakKeys().makeMap();
+
+    private TextMeasurer(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns the measurer of a display, creating it if needed. Must be called from the UI thread of the display.
+     * 
+     * @param display
+     *            the display.
+     * @return the measurer.
+     */
+    public static TextMeasurer get(Display display) {
+        Preconditions.checkArgument(!display.isDisposed());
+        TextMeasurer measurer = (TextMeasurer) display.getData(DATA_KEY);
+        if (measurer == null) {
+            final TextMeasurer newMeasurer = new TextMeasurer(display);
+            display.setData(DATA_KEY, newMeasurer);
+            FontMetricsCache.onFontsChanged(display, new Runnable() {
+                @Override
+                public void run() {
+                    newMeasurer.clear();
+                }
+            });
+            measurer = newMeasurer;
+        }
+        return measurer;
+    }
+
+    /**
+     * Returns the extent of a string drawn in a font. Tab expansion and carriage return processing are performed.
+     * 
+     * @param text
+     *            the string.
+     * @param font
+     *            the font.
+     * @return the extent, which can be modified by the caller.
+     */
+    public Point textExtent(String text, Font font) {
+        return textExtents(ImmutableList.of(text), font).get(0);
+    }
+
+    /**
+     * Returns the extents of some strings drawn in a font, measuring the strings not in the cache with a single {@link GC}. Tab
+     * expansion and carriage return processing are performed.
+     * 
+     * @param texts
+     *            the strings.
+     * @param font
+     *            the font.
+     * @return the extents, in the same order as the strings, which can be modified by the caller.
+     */
+    public List<Point> textExtents(Collection<String> texts, Font font) {
+        Preconditions.checkArgument(!font.isDisposed());
+        List<Point> result = Lists.newArrayListWithCapacity(texts.size());
+        GC gc = null;
+        try {
+            for (String text : texts) {
+                ExtentKey key = new ExtentKey(font, text);
+                Point extent = extents.get(key);
+                if (extent == null) {
+                    MISSES.increment();
+                    if (gc == null) {
+                        gc = new GC(display);
+                        gc.setFont(font);
+                    }
+                    extent = gc.textExtent(text);
+                    extents.put(key, extent);
+                }
+                result.add(new Point(extent.x, extent.y));
+            }
+        } finally {
+            if (gc != null) {
+                gc.dispose();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates the widths of some strings drawn in a font, without measuring them.
+     * 
+     * @param texts
+     *            the strings.
+     * @param font
+     *            the font.
+     * @return the estimated widths, in the same order as the strings, or {@link #NO_ESTIMATE} for strings containing characters not
+     *         in the advance table.
+     */
+    public int[] estimateTextWidths(Collection<String> texts, Font font) {
+        int[] advances = getAdvanceTable(font);
+        int[] widths = new int[texts.size()];
+        int i = 0;
+        for (String text : texts) {
+            widths[i++] = estimateWidth(text, advances);
+        }
+        return widths;
+    }
+
+    /**
+     * Returns the width of the widest string drawn in a font, for example to size a table column. The widths are estimated, and only
+     * the {@value #EXACT_WIDTH_CANDIDATES} strings with the widest estimates and the strings that cannot be estimated are measured
+     * exactly: the result may be smaller than the exact one when kerning makes another string wider.
+     * 
+     * @param texts
+     *            the strings.
+     * @param font
+     *            the font.
+     * @return the width of the widest string, or 0 if there are no strings.
+     */
+    public int maxTextWidth(Collection<String> texts, Font font) {
+        int[] widths = estimateTextWidths(texts, font);
+        int[] sortedWidths = widths.clone();
+        Arrays.sort(sortedWidths);
+        int estimated = sortedWidths.length - countNoEstimates(sortedWidths);
+        int threshold = (estimated > EXACT_WIDTH_CANDIDATES) ? sortedWidths[sortedWidths.length - EXACT_WIDTH_CANDIDATES]
+                : Integer.MIN_VALUE;
+        List<String> candidates = Lists.newArrayList();
+        int ties = 0;
+        int i = 0;
+        for (String text : texts) {
+            if ((widths[i] == NO_ESTIMATE) || (widths[i] > threshold)) {
+                candidates.add(text); // always measured: fewer than EXACT_WIDTH_CANDIDATES are wider than the threshold
+            } else if ((widths[i] == threshold) && (ties < EXACT_WIDTH_CANDIDATES)) {
+                candidates.add(text); // ties at the threshold are bounded
+                ties++;
+            }
+            i++;
+        }
+        int maxWidth = 0;
+        for (Point extent : textExtents(candidates, font)) {
+            maxWidth = Math.max(maxWidth, extent.x);
+        }
+        return maxWidth;
+    }
+
+    /**
+     * Removes all the cached extents and advance tables.
+     */
+    public void clear() {
+        extents.clear();
+        advanceTables.clear();
+    }
+
+    private int[] getAdvanceTable(Font font) {
+        Preconditions.checkArgument(!font.isDisposed());
+        int[] advances = advanceTables.get(font);
+        if (advances == null) {
+            advances = new int[TABLE_LIMIT - FIRST_TABLE_CHAR];
+            GC gc = new GC(display);
+            try {
+                gc.setFont(font);
+                for (char c = FIRST_TABLE_CHAR; c < TABLE_LIMIT; c++) {
+                    advances[c - FIRST_TABLE_CHAR] = gc.getAdvanceWidth(c);
+                }
+            } finally {
+                gc.dispose();
+            }
+            advanceTables.put(font, advances);
+        }
+        return advances;
+    }
+
+    /** Returns the number of {@link #NO_ESTIMATE} values at the start of sorted widths. */
+    private static int countNoEstimates(int[] sortedWidths) {
+        int count = 0;
+        while ((count < sortedWidths.length) && (sortedWidths[count] == NO_ESTIMATE)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int estimateWidth(String text, int[] advances) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c < FIRST_TABLE_CHAR) || (c >= TABLE_LIMIT)) {
+                return NO_ESTIMATE;
+            }
+            width += advances[c - FIRST_TABLE_CHAR];
+        }
+        return width;
+    }
+
+    /** The key of a cached extent: fonts are compared by identity. */
+    private static final class ExtentKey {
+
+        private final Font font;
+
+        private final String text;
+
+        private ExtentKey(Font font, String text) {
+            this.font = font;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ExtentKey)) {
+                return false;
+            }
+            ExtentKey other = (ExtentKey) obj;
+            return (font == other.font) && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(font) + text.hashCode();
+        }
+
+    }
+
+}
@@ -55,7 +55,9 @@ final class VersioningImageCatalog implements IImageCatalog {
         if (registry.get(getIndexedKey(key, index)) != null) {
             index = keyIndices.getUnchecked(key).incrementAndGet();
         }
-        CommonUiDebug.IMAGE.debug("Registering image: key=%s, index=%s, descriptor=%s", key, index, descriptor);
+        if (CommonUiDebug.IMAGE.isEnabled()) {
+            CommonUiDebug.IMAGE.debug("Registering image: key=%s, index=%s, descriptor=%s", key, index, descriptor);
+        }
         registry.put(getIndexedKey(key, index), descriptor);
     }
 
@@ -63,10 +65,20 @@ final class VersioningImageCatalog implements IImageCatalog {
     public void remove(String key) {
         if (registry.get(getIndexedKey(key)) != null) {
             int oldIndex = keyIndices.getUnchecked(key).getAndIncrement();
-            CommonUiDebug.IMAGE.debug("Removing image: key=%s, index=%s", key, oldIndex);
+            if (CommonUiDebug.IMAGE.isEnabled()) {
+                CommonUiDebug.IMAGE.debug("Removing image: key=%s, index=%s", key, oldIndex);
+            }
         }
     }
 
+    /**
+     * Disposes all the images of this catalog, including the old versions. The catalog must not be used afterwards.
+     */
+    void dispose() {
+        registry.dispose();
+        keyIndices.invalidateAll();
+    }
+
     private String getIndexedKey(String key) {
         return getIndexedKey(key, keyIndices.getUnchecked(key).get());
     }
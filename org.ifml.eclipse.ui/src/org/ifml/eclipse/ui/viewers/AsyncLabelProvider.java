@@ -0,0 +1,226 @@
+package org.ifml.eclipse.ui.viewers;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jface.viewers.ILabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.ifml.eclipse.core.runtime.Logs;
+import org.ifml.eclipse.ui.Workers;
+import org.ifml.eclipse.ui.widgets.Displays;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+
+/**
+ * A label provider computing the labels of another label provider in background.
+ * <p>
+ * When the label of an element is not yet known, a placeholder text and image are returned immediately and the label is computed on a
+ * small pool of worker threads shared by all the instances of this class. Computed labels are remembered as long as the elements are
+ * reachable (elements are compared by identity), and the viewers are notified of the elements whose labels are ready in batches,
+ * through {@link LabelProviderChangedEvent}s fired in the UI thread at most every {@value #UPDATE_DELAY_MILLIS} milliseconds.
+ * <p>
+ * The methods {@link ILabelProvider#getText(Object)} and {@link ILabelProvider#getImage(Object)} of the wrapped label provider are
+ * called out of the UI thread, so they must be thread-safe; images must not be created by them, but taken from a registry. The wrapped
+ * label provider must be disposed by the client.
+ */
+public class AsyncLabelProvider extends BasicLabelProvider {
+
+    /** The default placeholder text. */
+    public static final String DEFAULT_PLACEHOLDER_TEXT = "Pending...";
+
+    /** The minimum delay, in milliseconds, between two notifications of computed labels. */
+    public static final int UPDATE_DELAY_MILLIS = 50;
+
+    private static final int THREADS = Math.max(Workers.PARALLELISM / 2, 1);
+
+    private final ILabelProvider labelProvider;
+
+    private final String placeholderText;
+
+    private final Image placeholderImage;
+
+    private final Display display;
+
+    private final Cache<Object, Label> labels = CacheBuilder.newBuilder().weakKeys().build();
+
+    /** The elements whose labels are being computed, each with the token of its computation. */
+    private final ConcurrentMap<Object, Object> pending = new MapMaker().weakKeys().makeMap();
+
+    /** The elements whose labels have been computed since the last notification, guarded by {@code this}. */
+    private List<Object> completed = Lists.newArrayList();
+
+    private final Runnable update = new Runnable() {
+        @Override
+        public void run() {
+            fireCompleted();
+        }
+    };
+
+    /**
+     * Creates a new label provider returning {@value #DEFAULT_PLACEHOLDER_TEXT} as placeholder text and no placeholder image.
+     * 
+     * @param labelProvider
+     *            the wrapped label provider.
+     */
+    public AsyncLabelProvider(ILabelProvider labelProvider) {
+        this(labelProvider, DEFAULT_PLACEHOLDER_TEXT, null);
+    }
+
+    /**
+     * Creates a new label provider.
+     * 
+     * @param labelProvider
+     *            the wrapped label provider.
+     * @param placeholderText
+     *            the text returned while computing the label of an element.
+     * @param placeholderImage
+     *            the image returned while computing the label of an element.
+     */
+    public AsyncLabelProvider(ILabelProvider labelProvider, String placeholderText, @Nullable Image placeholderImage) {
+        this.labelProvider = Preconditions.checkNotNull(labelProvider);
+        this.placeholderText = Preconditions.checkNotNull(placeholderText);
+        this.placeholderImage = placeholderImage;
+        this.display = Displays.getDisplay();
+    }
+
+    @Override
+    public String getText(Object element) {
+        Label label = getLabel(element);
+        return (label != null) ? label.text : placeholderText;
+    }
+
+    @Override
+    public Image getImage(Object element) {
+        Label label = getLabel(element);
+        return (label != null) ? label.image : placeholderImage;
+    }
+
+    /**
+     * Returns whether the label of an element has been computed.
+     * 
+     * @param element
+     *            the element.
+     * @return {@code true} if the label is available.
+     */
+    public boolean isLabelAvailable(Object element) {
+        return (element == null) || (labels.getIfPresent(element) != null);
+    }
+
+    /**
+     * Discards the label computed for an element; the label is computed again when requested. A computation in progress is discarded
+     * too.
+     * 
+     * @param element
+     *            the element.
+     */
+    public void invalidate(Object element) {
+        if (element != null) {
+            pending.remove(element);
+            labels.invalidate(element);
+            fireLabelProviderChanged(new LabelProviderChangedEvent(this, element));
+        }
+    }
+
+    /**
+     * Discards all the computed labels.
+     */
+    public void invalidateAll() {
+        pending.clear();
+        labels.invalidateAll();
+        fireLabelProviderChanged(new LabelProviderChangedEvent(this));
+    }
+
+    @Nullable
+    private Label getLabel(Object element) {
+        if (element == null) {
+            return new Label(labelProvider.getText(null), labelProvider.getImage(null));
+        }
+        Label label = labels.getIfPresent(element);
+        if (label == null) {
+            Object token = new Object();
+            if (pending.putIfAbsent(element, token) == null) {
+                schedule(element, token);
+            }
+        }
+        return label;
+    }
+
+    private void schedule(final Object element, final Object token) {
+        PoolHolder.POOL.execute(new Runnable() {
+            @Override
+            public void run() {
+                compute(element, token);
+            }
+        });
+    }
+
+    private void compute(Object element, Object token) {
+        Label label;
+        try {
+            label = new Label(labelProvider.getText(element), labelProvider.getImage(element));
+        } catch (RuntimeException e) {
+            Logs.logError(e, "unable to compute the label of " + element, null);
+            label = new Label(String.valueOf(element), null);
+        }
+        labels.put(element, label);
+        if (!pending.remove(element, token)) {
+            labels.asMap().remove(element, label); // invalidated while computing
+            return;
+        }
+        boolean first;
+        synchronized (this) {
+            first = completed.isEmpty();
+            completed.add(element);
+        }
+        if (first && !display.isDisposed()) {
+            display.asyncExec(new Runnable() {
+                @Override
+                public void run() {
+                    display.timerExec(UPDATE_DELAY_MILLIS, update);
+                }
+            });
+        }
+    }
+
+    private void fireCompleted() {
+        List<Object> elements;
+        synchronized (this) {
+            elements = completed;
+            completed = Lists.newArrayList();
+        }
+        if (!elements.isEmpty()) {
+            fireLabelProviderChanged(new LabelProviderChangedEvent(this, elements.toArray()));
+        }
+    }
+
+    private static final class Label {
+
+        private final String text;
+
+        private final Image image;
+
+        private Label(@Nullable String text, @Nullable Image image) {
+            this.text = text;
+            this.image = image;
+        }
+
+    }
+
+    private static final class PoolHolder {
+
+        private static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS,
+                Workers.newThreadFactory("IFML UI Label Worker "));
+
+    }
+
+}
@@ -1,8 +1,11 @@
 package org.ifml.eclipse.ui.viewers;
 
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
 import org.eclipse.swt.graphics.Image;
 
 /**
@@ -10,16 +13,19 @@ import org.eclipse.swt.graphics.Image;
  * <p>
  * The main difference with respect to the {@link LabelProvider} class is the empty implementation of all the following methods:
  * <ul>
- * <li>{@link #addListener(ILabelProviderListener)}
- * <li>{@link #removeListener(ILabelProviderListener)}
  * <li>{@link #isLabelProperty(Object, String)}
- * <li>{@link #dispose()}
+ * <li>{@link #dispose()}, unless a subclass releases its resources in {@link #doDispose()}
  * </ul>
+ * Listeners registered through {@link #addListener(ILabelProviderListener)} are notified by subclasses calling
+ * {@link #fireLabelProviderChanged(LabelProviderChangedEvent)}.
  */
 public class BasicLabelProvider implements ILabelProvider {
 
+    private final ListenerList listeners = new ListenerList();
+
     @Override
     public final void addListener(ILabelProviderListener listener) {
+        listeners.add(listener);
     }
 
     @Override
@@ -29,6 +35,7 @@ public class BasicLabelProvider implements ILabelProvider {
 
     @Override
     public final void removeListener(ILabelProviderListener listener) {
+        listeners.remove(listener);
     }
 
     @Override
@@ -43,6 +50,31 @@ public class BasicLabelProvider implements ILabelProvider {
 
     @Override
     public final void dispose() {
+        doDispose();
+    }
+
+    /**
+     * Releases the resources of this label provider when it is disposed. The default implementation does nothing.
+     */
+    protected void doDispose() {
+    }
+
+    /**
+     * Notifies the registered listeners that the labels of some elements have changed.
+     * 
+     * @param event
+     *            the event describing the changed elements.
+     */
+    protected final void fireLabelProviderChanged(final LabelProviderChangedEvent event) {
+        for (Object listener : listeners.getListeners()) {
+            final ILabelProviderListener labelProviderListener = (ILabelProviderListener) listener;
+            SafeRunnable.run(new SafeRunnable() {
+                @Override
+                public void run() {
+                    labelProviderListener.labelProviderChanged(event);
+                }
+            });
+        }
     }
 
 }
@@ -0,0 +1,144 @@
+package org.ifml.eclipse.ui.viewers;
+
+import javax.annotation.Nullable;
+
+import org.eclipse.jface.viewers.ILabelProvider;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.swt.graphics.Image;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A label provider remembering the text and the image computed by another label provider for each element.
+ * <p>
+ * Labels are kept, up to a maximum number of elements, as long as the elements are reachable; elements are compared by identity.
+ * Clients must invalidate the label of an element when it changes: invalidating fires a {@link LabelProviderChangedEvent} so that the
+ * viewers using this provider refresh the element. Events fired by the wrapped label provider invalidate the labels of the elements
+ * they refer to and are forwarded as well.
+ * <p>
+ * The wrapped label provider keeps owning the images it returns and must be disposed by the client, after this label provider: disposing
+ * this label provider stops listening to the wrapped one and discards the remembered labels.
+ */
+public class CachingLabelProvider extends BasicLabelProvider {
+
+    /** The default maximum number of elements whose labels are remembered. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 16384;
+
+    private final ILabelProvider labelProvider;
+
+    private final Cache<Object, Label> labels;
+
+    private final ILabelProviderListener listener = new ILabelProviderListener() {
+        @Override
+        public void labelProviderChanged(LabelProviderChangedEvent event) {
+            invalidate(event.getElements());
+        }
+    };
+
+    /**
+     * Creates a new label provider remembering up to {@value #DEFAULT_MAXIMUM_SIZE} labels.
+     * 
+     * @param labelProvider
+     *            the wrapped label provider.
+     */
+    public CachingLabelProvider(ILabelProvider labelProvider) {
+        this(labelProvider, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a new label provider.
+     * 
+     * @param labelProvider
+     *            the wrapped label provider.
+     * @param maximumSize
+     *            the maximum number of elements whose labels are remembered.
+     */
+    public CachingLabelProvider(ILabelProvider labelProvider, int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0);
+        this.labelProvider = Preconditions.checkNotNull(labelProvider);
+        this.labels = CacheBuilder.newBuilder().weakKeys().maximumSize(maximumSize).build();
+        labelProvider.addListener(listener);
+    }
+
+    @Override
+    public String getText(Object element) {
+        return getLabel(element).text;
+    }
+
+    @Override
+    public Image getImage(Object element) {
+        return getLabel(element).image;
+    }
+
+    /**
+     * Discards the label remembered for an element and notifies the listeners.
+     * 
+     * @param element
+     *            the element.
+     */
+    public void invalidate(Object element) {
+        invalidate(new Object[] { element });
+    }
+
+    /**
+     * Discards the labels remembered for some elements and notifies the listeners.
+     * 
+     * @param elements
+     *            the elements, or {@code null} to discard all the labels.
+     */
+    public void invalidate(@Nullable Object[] elements) {
+        if (elements == null) {
+            invalidateAll();
+            return;
+        }
+        for (Object element : elements) {
+            if (element != null) {
+                labels.invalidate(element);
+            }
+        }
+        fireLabelProviderChanged(new LabelProviderChangedEvent(this, elements));
+    }
+
+    /**
+     * Discards all the remembered labels and notifies the listeners.
+     */
+    public void invalidateAll() {
+        labels.invalidateAll();
+        fireLabelProviderChanged(new LabelProviderChangedEvent(this));
+    }
+
+    @Override
+    protected void doDispose() {
+        labelProvider.removeListener(listener);
+        labels.invalidateAll();
+    }
+
+    private Label getLabel(Object element) {
+        if (element == null) {
+            return new Label(labelProvider.getText(null), labelProvider.getImage(null));
+        }
+        Label label = labels.getIfPresent(element);
+        if (label == null) {
+            label = new Label(labelProvider.getText(element), labelProvider.getImage(element));
+            labels.put(element, label);
+        }
+        return label;
+    }
+
+    private static final class Label {
+
+        private final String text;
+
+        private final Image image;
+
+        private Label(@Nullable String text, @Nullable Image image) {
+            this.text = text;
+            this.image = image;
+        }
+
+    }
+
+}
@@ -1,26 +1,57 @@
 package org.ifml.eclipse.ui.viewers;
 
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import org.eclipse.jface.viewers.ILabelProvider;
+import org.ifml.eclipse.ui.Workers;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 
 /**
  * An object comparator comparing two objects using the values returned by {@link ILabelProvider#getText(Object)}.
+ * <p>
+ * Texts are compared ignoring case differences or, if a {@link Collator} is provided, according to the collator rules. Since
+ * {@link #compare(Object, Object)} computes two texts for each comparison, sorting large collections should be done with
+ * {@link #sortedCopy(Iterable)} or {@link #parallelSortedCopy(Iterable)}, which compute the text (and the collation key) of each element
+ * only once.
  */
 public final class LabelProviderComparator implements Comparator<Object> {
 
+    private static final int MIN_CHUNK_SIZE = 256;
+
     private final ILabelProvider labelProvider;
 
+    private final Collator collator;
+
     /**
-     * Creates a new comparator.
+     * Creates a new comparator ignoring case differences.
      * 
      * @param labelProvider
      *            the label provider.
      */
     public LabelProviderComparator(ILabelProvider labelProvider) {
+        this(labelProvider, null);
+    }
+
+    /**
+     * Creates a new comparator.
+     * 
+     * @param labelProvider
+     *            the label provider.
+     * @param collator
+     *            the collator used to compare texts, or {@code null} to compare texts ignoring case differences.
+     */
+    public LabelProviderComparator(ILabelProvider labelProvider, @Nullable Collator collator) {
         this.labelProvider = labelProvider;
+        this.collator = collator;
     }
 
     /*
@@ -32,7 +63,90 @@ public final class LabelProviderComparator implements Comparator<Object> {
     public int compare(Object o1, Object o2) {
         String s1 = Strings.nullToEmpty(labelProvider.getText(o1));
         String s2 = Strings.nullToEmpty(labelProvider.getText(o2));
-        return s1.compareToIgnoreCase(s2);
+        return (collator != null) ? collator.compare(s1, s2) : s1.compareToIgnoreCase(s2);
+    }
+
+    /**
+     * Returns a sorted copy of some elements. The sort is stable and computes the text of each element only once.
+     * 
+     * @param <T>
+     *            the type parameter.
+     * @param elements
+     *            the elements.
+     * @return the sorted list of elements.
+     */
+    public <T> List<T> sortedCopy(Iterable<? extends T> elements) {
+        List<T> list = Lists.newArrayList(elements);
+        SortKey[] keys = new SortKey[list.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = createKey(list.get(i));
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked")
+            T element = (T) keys[i].element;
+            list.set(i, element);
+        }
+        return list;
+    }
+
+    /**
+     * Returns a sorted copy of some elements, computing the texts and sorting them in parallel on the {@link Workers} pool. The sort is
+     * stable and computes the text of each element only once; the label provider (and the collator, if any) must be thread-safe.
+     * 
+     * @param <T>
+     *            the type parameter.
+     * @param elements
+     *            the elements.
+     * @return the sorted list of elements.
+     */
+    public <T> List<T> parallelSortedCopy(Iterable<? extends T> elements) {
+        final List<T> list = Lists.newArrayList(elements);
+        final SortKey[] keys = new SortKey[list.size()];
+        Workers.invokeChunks(keys.length, MIN_CHUNK_SIZE, new Workers.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    keys[i] = createKey(list.get(i));
+                }
+            }
+        });
+        Workers.sort(keys, Ordering.natural());
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked")
+            T element = (T) keys[i].element;
+            list.set(i, element);
+        }
+        return list;
+    }
+
+    private SortKey createKey(Object element) {
+        String text = Strings.nullToEmpty(labelProvider.getText(element));
+        return new SortKey(element, text, (collator != null) ? collator.getCollationKey(text) : null);
+    }
+
+    private static final class SortKey implements Comparable<SortKey> {
+
+        private final Object element;
+
+        private final String text;
+
+        private final CollationKey collationKey;
+
+        private SortKey(Object element, String text, @Nullable CollationKey collationKey) {
+            this.element = element;
+            this.text = text;
+            this.collationKey = collationKey;
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            if (collationKey != null) {
+                return collationKey.compareTo(other.collationKey);
+            }
+            return text.compareToIgnoreCase(other.text);
+        }
+
     }
 
 }
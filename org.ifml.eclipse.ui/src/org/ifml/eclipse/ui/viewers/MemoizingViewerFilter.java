@@ -0,0 +1,26 @@
+package org.ifml.eclipse.ui.viewers;
+
+import org.eclipse.jface.viewers.ViewerFilter;
+
+/**
+ * A viewer filter remembering the verdicts computed for the filtered elements.
+ * <p>
+ * Verdicts are kept as long as the elements are reachable and are compared by identity. Clients must invalidate the verdict of an
+ * element whenever a change of the element may alter it, typically before refreshing the viewer.
+ */
+public abstract class MemoizingViewerFilter extends ViewerFilter {
+
+    /**
+     * Discards the verdict remembered for an element.
+     * 
+     * @param element
+     *            the element.
+     */
+    public abstract void invalidate(Object element);
+
+    /**
+     * Discards all the remembered verdicts.
+     */
+    public abstract void invalidateAll();
+
+}
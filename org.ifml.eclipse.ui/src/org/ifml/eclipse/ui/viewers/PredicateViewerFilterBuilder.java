@@ -1,24 +1,55 @@
 package org.ifml.eclipse.ui.viewers;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
+import org.ifml.eclipse.ui.Workers;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * A builder for {@link ViewerFilter} based on predicates.
+ * <p>
+ * An element is selected by the built filter if at least one predicate has been registered for a type the element is an instance of,
+ * and all such predicates accept it. The predicates applicable to each concrete element class are computed once and cached, so that
+ * filtering an element costs a single lookup followed by the evaluation of its predicates.
+ * <p>
+ * Filters built after a call to {@link #parallel()} evaluate large arrays of elements in parallel on the {@link Workers} pool, keeping
+ * the original order of the selected elements; in such a case all the predicates must be thread-safe.
+ * <p>
+ * Filters built by {@link #buildMemoizing()} remember, for each element, the verdict of the predicates registered through
+ * {@link #purePredicate(Class, Predicate)}, whose result depends only on the state of the element; the other predicates are evaluated
+ * at each refresh. After a change, only the verdicts of the changed elements need to be invalidated and recomputed.
  * 
  * @param <T>
  *            the type parameter.
  */
 public class PredicateViewerFilterBuilder<T> {
 
+    /** The default minimum number of elements filtered in parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+    private static final int MIN_CHUNK_SIZE = 1024;
+
     private final Map<Class<? extends T>, Predicate<?>> predicates = Maps.newHashMap();
 
+    private final Set<Class<? extends T>> pureTypes = Sets.newHashSet();
+
+    private int parallelThreshold = Integer.MAX_VALUE;
+
     /**
      * Adds a predicate for a specific type.
      * 
@@ -32,6 +63,48 @@ public class PredicateViewerFilterBuilder<T> {
      */
     public <E extends T> PredicateViewerFilterBuilder<T> predicate(Class<? extends E> cl, Predicate<? super E> predicate) {
         predicates.put(cl, predicate);
+        pureTypes.remove(cl);
+        return this;
+    }
+
+    /**
+     * Adds a pure predicate for a specific type, that is a predicate whose result depends only on the state of the element it is
+     * applied to. Filters built by {@link #buildMemoizing()} remember the verdicts of pure predicates until invalidated.
+     * 
+     * @param <E>
+     *            the type parameter.
+     * @param cl
+     *            the class type.
+     * @param predicate
+     *            the predicate.
+     * @return this builder.
+     */
+    public <E extends T> PredicateViewerFilterBuilder<T> purePredicate(Class<? extends E> cl, Predicate<? super E> predicate) {
+        predicates.put(cl, predicate);
+        pureTypes.add(cl);
+        return this;
+    }
+
+    /**
+     * Evaluates the predicates in parallel when filtering at least {@value #DEFAULT_PARALLEL_THRESHOLD} elements. Predicates must be
+     * thread-safe.
+     * 
+     * @return this builder.
+     */
+    public PredicateViewerFilterBuilder<T> parallel() {
+        return parallel(DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Evaluates the predicates in parallel when filtering at least a given number of elements. Predicates must be thread-safe.
+     * 
+     * @param threshold
+     *            the minimum number of elements filtered in parallel.
+     * @return this builder.
+     */
+    public PredicateViewerFilterBuilder<T> parallel(int threshold) {
+        Preconditions.checkArgument(threshold > 0);
+        this.parallelThreshold = threshold;
         return this;
     }
 
@@ -41,33 +114,152 @@ public class PredicateViewerFilterBuilder<T> {
      * @return the viewer filter.
      */
     public ViewerFilter build() {
-        return new PredicateViewerFilter<T>(this);
+        return new PredicateViewerFilter<T>(this, false);
     }
 
-    private static final class PredicateViewerFilter<T> extends ViewerFilter {
+    /**
+     * Creates a viewer filter remembering the verdicts of the pure predicates.
+     * 
+     * @return the viewer filter.
+     */
+    public MemoizingViewerFilter buildMemoizing() {
+        return new PredicateViewerFilter<T>(this, true);
+    }
+
+    private static final class PredicateViewerFilter<T> extends MemoizingViewerFilter {
 
         private final Map<Class<? extends T>, Predicate<?>> predicates;
 
-        public PredicateViewerFilter(PredicateViewerFilterBuilder<T> builder) {
+        private final Set<Class<? extends T>> pureTypes;
+
+        private final int parallelThreshold;
+
+        /** The predicates applicable to each concrete element class, lazily computed. */
+        private final LoadingCache<Class<?>, ApplicablePredicates> dispatchTable;
+
+        /** The verdicts of the pure predicates for each element, or {@code null} if not memoizing. */
+        private final Cache<Object, Boolean> verdicts;
+
+        public PredicateViewerFilter(PredicateViewerFilterBuilder<T> builder, boolean memoizing) {
             predicates = ImmutableMap.copyOf(builder.predicates);
+            pureTypes = ImmutableSet.copyOf(builder.pureTypes);
+            parallelThreshold = builder.parallelThreshold;
+            dispatchTable = CacheBuilder.newBuilder().concurrencyLevel(1).weakKeys()
+                    .build(new CacheLoader<Class<?>, ApplicablePredicates>() {
+                        @Override
+                        public ApplicablePredicates load(Class<?> elementClass) {
+                            return getApplicablePredicates(elementClass);
+                        }
+                    });
+            if (memoizing) {
+                int concurrencyLevel = (parallelThreshold < Integer.MAX_VALUE) ? Workers.PARALLELISM : 1;
+                verdicts = CacheBuilder.newBuilder().concurrencyLevel(concurrencyLevel).weakKeys().build();
+            } else {
+                verdicts = null;
+            }
         }
 
         @Override
         public boolean select(Viewer viewer, Object parentElement, Object element) {
-            boolean classFound = false;
-            for (Map.Entry<Class<? extends T>, Predicate<?>> entry : predicates.entrySet()) {
-                Class<? extends T> cl = entry.getKey();
-                if (cl.isInstance(element)) {
-                    classFound = true;
-                    T item = cl.cast(element);
-                    @SuppressWarnings("unchecked")
-                    Predicate<? super T> predicate = (Predicate<? super T>) entry.getValue();
-                    if (!predicate.apply(item)) {
-                        return false;
+            if (element == null) {
+                return false;
+            }
+            ApplicablePredicates applicablePredicates = dispatchTable.getUnchecked(element.getClass());
+            return applicablePredicates.exist() && selectPure(element, applicablePredicates)
+                    && applyAll(applicablePredicates.impure, element);
+        }
+
+        @Override
+        public void invalidate(Object element) {
+            if ((verdicts != null) && (element != null)) {
+                verdicts.invalidate(element);
+            }
+        }
+
+        @Override
+        public void invalidateAll() {
+            if (verdicts != null) {
+                verdicts.invalidateAll();
+            }
+        }
+
+        private boolean selectPure(Object element, ApplicablePredicates applicablePredicates) {
+            if ((verdicts == null) || (applicablePredicates.pure.length == 0)) {
+                return applyAll(applicablePredicates.pure, element);
+            }
+            Boolean verdict = verdicts.getIfPresent(element);
+            if (verdict == null) {
+                verdict = applyAll(applicablePredicates.pure, element);
+                verdicts.put(element, verdict);
+            }
+            return verdict;
+        }
+
+        private static boolean applyAll(Predicate<Object>[] predicates, Object element) {
+            for (Predicate<Object> predicate : predicates) {
+                if (!predicate.apply(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Object[] filter(final Viewer viewer, final Object parent, final Object[] elements) {
+            if (elements.length < parallelThreshold) {
+                return super.filter(viewer, parent, elements);
+            }
+            final boolean[] selected = new boolean[elements.length];
+            Workers.invokeChunks(elements.length, MIN_CHUNK_SIZE, new Workers.RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        selected[i] = select(viewer, parent, elements[i]);
                     }
                 }
+            });
+            int count = 0;
+            for (boolean isSelected : selected) {
+                if (isSelected) {
+                    count++;
+                }
+            }
+            Object[] result = new Object[count];
+            for (int i = 0, j = 0; j < count; i++) {
+                if (selected[i]) {
+                    result[j++] = elements[i];
+                }
+            }
+            return result;
+        }
+
+        private ApplicablePredicates getApplicablePredicates(Class<?> elementClass) {
+            List<Predicate<?>> pure = Lists.newArrayList();
+            List<Predicate<?>> impure = Lists.newArrayList();
+            for (Map.Entry<Class<? extends T>, Predicate<?>> entry : predicates.entrySet()) {
+                if (entry.getKey().isAssignableFrom(elementClass)) {
+                    (pureTypes.contains(entry.getKey()) ? pure : impure).add(entry.getValue());
+                }
             }
-            return classFound;
+            return new ApplicablePredicates(pure, impure);
+        }
+
+    }
+
+    private static final class ApplicablePredicates {
+
+        private final Predicate<Object>[] pure;
+
+        private final Predicate<Object>[] impure;
+
+        @SuppressWarnings("unchecked")
+        private ApplicablePredicates(List<Predicate<?>> pure, List<Predicate<?>> impure) {
+            this.pure = pure.toArray(new Predicate[pure.size()]);
+            this.impure = impure.toArray(new Predicate[impure.size()]);
+        }
+
+        private boolean exist() {
+            return (pure.length > 0) || (impure.length > 0);
         }
 
     }
@@ -1,5 +1,9 @@
 package org.ifml.eclipse.ui.widgets;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import javax.annotation.Nullable;
 
 import org.eclipse.jface.action.IMenuListener;
@@ -11,9 +15,7 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.ScrolledComposite;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
-import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Point;
-import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FormAttachment;
 import org.eclipse.swt.layout.FormData;
 import org.eclipse.swt.layout.FormLayout;
@@ -21,24 +23,27 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
-import org.eclipse.swt.widgets.Event;
-import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Sash;
-import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Text;
 import org.ifml.base.ImmutablePair;
-import org.ifml.base.Objects2;
 import org.ifml.eclipse.core.runtime.Logs;
+import org.ifml.eclipse.ui.debug.CommonUiDebug;
+import org.ifml.eclipse.ui.debug.OperationTimer;
+import org.ifml.eclipse.ui.debug.UiMetrics;
+import org.ifml.eclipse.ui.graphics.TextMeasurer;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 
 /**
  * Provides utility-methods for {@link Control}.
  */
 public final class Controls {
 
+    private static final OperationTimer TEXT_EXTENT_TIMER = UiMetrics.timer(CommonUiDebug.FONT, "Controls.textExtent");
+
     /**
      * Recursively initializes all the scrolled composites descending from the {@code control} argument.
      * <p>
@@ -70,20 +75,18 @@ public final class Controls {
      * @deprecated use {@link #initializeScrolledComposite(ScrolledComposite, boolean, boolean)}
      */
     @Deprecated
-    public static void initializeScrolledComposite(final ScrolledComposite scrolledComposite) {
-        scrolledComposite.setMinSize(scrolledComposite.getContent().computeSize(SWT.DEFAULT, SWT.DEFAULT));
-        scrolledComposite.getContent().addListener(SWT.Resize, new Listener() {
-            @Override
-            public void handleEvent(Event event) {
-                scrolledComposite.setMinSize(scrolledComposite.getContent().computeSize(SWT.DEFAULT, SWT.DEFAULT));
-            }
-        });
+    public static void initializeScrolledComposite(ScrolledComposite scrolledComposite) {
+        initializeScrolledComposite(scrolledComposite, true, true);
     }
 
     /**
      * Initializes the given composite by setting its minimum size (based on the size of its control if default flag is true or based
      * on the current size of the scrolling composite) and by adding a resize listener able to recompute the minimum size.
      * <p>
+     * The resize events received while handling a burst of events are coalesced into a single recomputation, run asynchronously, and
+     * the sizes of the content are cached by size hint until the content is resized on its own, relayed out or invalidated (see
+     * {@link #invalidateScrolledComposite(ScrolledComposite)}). Initializing the composite again only changes the flags.
+     * <p>
      * This method should be called as late as possible, when the scrolled composite is about to be displayed for the first time.
      * 
      * @param scrolledComposite
@@ -95,59 +98,33 @@ public final class Controls {
      *            if true the minimum height will be recomputed basing on the default required height of the content composite, on the
      *            current scrolled composite height otherwise.
      */
-    public static void initializeScrolledComposite(final ScrolledComposite scrolledComposite, final boolean useDefaultWidth,
-            final boolean useDefaultHeight) {
-        scrolledComposite.setMinSize(scrolledComposite.getContent().computeSize(SWT.DEFAULT, SWT.DEFAULT));
-        Listener listener = new Listener() {
-            @Override
-            public void handleEvent(Event event) {
-                Rectangle bounds = scrolledComposite.getBounds();
-                ScrollBar bar = null;
-                bar = scrolledComposite.getVerticalBar();
-                if (bar != null && !bar.isDisposed() && bar.isVisible()) {
-                    bounds.width -= bar.getSize().x;
-                }
-                bar = scrolledComposite.getHorizontalBar();
-                if (bar != null && !bar.isDisposed() && bar.isVisible()) {
-                    bounds.height -= bar.getSize().y;
-                }
-                scrolledComposite.setMinSize(scrolledComposite.getContent().computeSize(useDefaultWidth ? SWT.DEFAULT : bounds.width,
-                        useDefaultHeight ? SWT.DEFAULT : bounds.height));
-            }
-        };
-        // TODO: experiment
-        // if ("".equals("")) {
-        // scrolledComposite.getContent().addListener(SWT.Resize, new Listener() {
-        // public void handleEvent(Event event) {
-        // scrolledComposite.setMinSize(scrolledComposite.getContent().computeSize(SWT.DEFAULT, SWT.DEFAULT));
-        // }
-        // });
-        // } else {
-        // scrolledComposite.getContent().addListener(SWT.Resize, listener);
-        // }
-        scrolledComposite.addListener(SWT.Resize, listener);
+    public static void initializeScrolledComposite(ScrolledComposite scrolledComposite, boolean useDefaultWidth,
+            boolean useDefaultHeight) {
+        ScrolledLayoutScheduler.get(scrolledComposite).install(useDefaultWidth, useDefaultHeight);
+    }
+
+    /**
+     * Marks the content of the given scrolled composite as changed, so that its size is measured again when the minimum size of the
+     * scrolled composite is next recomputed.
+     * 
+     * @param scrolledComposite
+     *            the scrolled composite whose content changed.
+     */
+    public static void invalidateScrolledComposite(ScrolledComposite scrolledComposite) {
+        ScrolledLayoutScheduler.get(scrolledComposite).invalidate();
     }
 
     /**
      * Forces the given scrolled composite to recompute itself.
      * <p>
      * If the nested component is a {@link Composite} then {@link Composite#layout(boolean, boolean) layout(true, true)} is invoked.
+     * The cached sizes of the content (see {@link #initializeScrolledComposite(ScrolledComposite, boolean, boolean)}) are cleared.
      * 
      * @param scrolledComposite
      *            the scrolled composite to relayout.
      */
     public static void relayout(ScrolledComposite scrolledComposite) {
-        Composite content = Objects2.as(scrolledComposite.getContent(), Composite.class);
-        if (content != null) {
-            content.layout(true, true);
-        }
-        scrolledComposite.setMinSize(scrolledComposite.computeSize(SWT.DEFAULT, SWT.DEFAULT));
-        // workaround
-        Rectangle bounds = scrolledComposite.getBounds();
-        bounds.width += 2;
-        scrolledComposite.setBounds(bounds);
-        bounds.width -= 2;
-        scrolledComposite.setBounds(bounds);
+        ScrolledLayoutScheduler.get(scrolledComposite).relayout();
     }
 
     /**
@@ -183,30 +160,72 @@ public final class Controls {
      * @return a point containing the extent of the string
      */
     public static final Point textExtent(@Nullable String string, @Nullable Control control) { // TODO:move to common class
-        GC gc = null;
-        Point pt = new Point(0, 0);
+        return textExtents(Collections.singletonList(Strings.nullToEmpty(string)), control).get(0);
+    }
+
+    /**
+     * Returns the extents of the given strings, as {@link #textExtent(String, Control)} does for each string. The extents of strings
+     * measured recently are reused, and the other strings are measured in a single native session (see {@link TextMeasurer}).
+     * <p>
+     * In case of exception this method returns empty points logging the error.
+     * 
+     * @param strings
+     *            the strings to measure
+     * @param control
+     *            the control where the given strings will be shown
+     * @return the extents of the strings, in the same order
+     */
+    public static List<Point> textExtents(Collection<String> strings, @Nullable Control control) {
+        long start = TEXT_EXTENT_TIMER.start();
         try {
             if (control == null) {
                 control = Displays.getDisplay().getActiveShell();
             }
-            gc = new GC(control.getDisplay());
-            gc.setFont(control.getFont());
-            pt = gc.textExtent(Strings.nullToEmpty(string));
-            pt.x = Math.max(pt.x, 1);
-            pt.y = Math.max(pt.y, 1);
-        } catch (Throwable exception) {
+            List<Point> extents = TextMeasurer.get(control.getDisplay()).textExtents(strings, control.getFont());
+            for (Point extent : extents) {
+                extent.x = Math.max(extent.x, 1);
+                extent.y = Math.max(extent.y, 1);
+            }
+            return extents;
+        } catch (RuntimeException exception) {
             Logs.logError(exception, null, null);
-            return new Point(0, 0);
+            List<Point> extents = Lists.newArrayListWithCapacity(strings.size());
+            for (int i = 0; i < strings.size(); i++) {
+                extents.add(new Point(0, 0));
+            }
+            return extents;
         } finally {
-            try {
-                if (gc != null && !gc.isDisposed()) {
-                    gc.dispose();
-                }
-            } catch (Throwable exception) {
-                Logs.logError(exception, null, null);
+            TEXT_EXTENT_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Returns the width of the widest of the given strings, for example to size a table column. Widths are estimated from the advance
+     * widths of the characters, and only the widest candidates and the strings that cannot be estimated are measured exactly (see
+     * {@link TextMeasurer#maxTextWidth(Collection, org.eclipse.swt.graphics.Font)}).
+     * <p>
+     * In case of exception this method returns 0 logging the error.
+     * 
+     * @param strings
+     *            the strings to measure
+     * @param control
+     *            the control where the given strings will be shown
+     * @return the width of the widest string, at least 1 if there are strings
+     */
+    public static int maxTextWidth(Collection<String> strings, @Nullable Control control) {
+        long start = TEXT_EXTENT_TIMER.start();
+        try {
+            if (control == null) {
+                control = Displays.getDisplay().getActiveShell();
             }
+            int width = TextMeasurer.get(control.getDisplay()).maxTextWidth(strings, control.getFont());
+            return strings.isEmpty() ? 0 : Math.max(width, 1);
+        } catch (RuntimeException exception) {
+            Logs.logError(exception, null, null);
+            return 0;
+        } finally {
+            TEXT_EXTENT_TIMER.stop(start);
         }
-        return pt;
     }
 
     /**
@@ -399,57 +418,19 @@ public final class Controls {
     }
 
     /**
-     * Add a wheel listener to the given scrolled composite and to all its children recursively.
+     * Redirects the wheel events of all the descendants of the given scrolled composite, including the ones created later, to its
+     * scroll bar. The redirection is performed by a display filter, removed when the scrolled composite is disposed; redirecting the
+     * same direction again does nothing.
      * 
      * @param scrolledComposite
      *            the scrolled composite
      * @param vertical
      *            if vertical
      */
-    public static final void addRedirectWheelListener(final ScrolledComposite scrolledComposite, final boolean vertical) {
-        final Listener wheelListener = new Listener() {
-
-            @Override
-            public void handleEvent(Event event) {
-                if (!(event.widget instanceof Control)) {
-                    return;
-                }
-                final Control control = (Control) event.widget;
-                if (scrolledComposite == null || scrolledComposite.isDisposed() || control == null || control.isDisposed()) {
-                    return;
-                }
-                ScrollBar bar = (vertical ? scrolledComposite.getVerticalBar() : scrolledComposite.getHorizontalBar());
-                if (bar != null && !bar.isDisposed()) {
-                    // System.out.println("scroll: " + targetControl);// TODO
-                    bar.setSelection(bar.getSelection() - event.count * bar.getIncrement());
-                    Listener[] listeners = bar.getListeners(SWT.Selection);
-                    if (listeners == null) {
-                        return;
-                    }
-                    for (Listener l : listeners) {
-                        l.handleEvent(event);// redirect
-                    }
-                }
-            }
-
-        };
-        addRedirectWheelListener(scrolledComposite, scrolledComposite, wheelListener, vertical);
-    }
-
-    private static final void addRedirectWheelListener(final Composite parent, final ScrolledComposite scrolledComposite,
-            final Listener wheelListener, final boolean vertical) {
-        if (parent == null || parent.isDisposed()) {
-            return;
-        }
-        Control[] children = parent.getChildren();
-        if (children == null || children.length <= 0) {
+    public static final void addRedirectWheelListener(ScrolledComposite scrolledComposite, boolean vertical) {
+        if (scrolledComposite == null || scrolledComposite.isDisposed()) {
             return;
         }
-        for (Control child : children) {
-            child.addListener(vertical ? SWT.MouseVerticalWheel : SWT.MouseHorizontalWheel, wheelListener);
-            if (child instanceof Composite) {
-                addRedirectWheelListener((Composite) child, scrolledComposite, wheelListener, vertical);
-            }
-        }
+        WheelRedirector.install(scrolledComposite, vertical);
     }
 }
@@ -0,0 +1,210 @@
+package org.ifml.eclipse.ui.widgets;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ScrolledComposite;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.ScrollBar;
+import org.ifml.base.Objects2;
+
+/**
+ * Updates the minimum size of a {@link ScrolledComposite} after it is resized, coalescing the resize events received while handling a
+ * burst of events into a single update run by {@link org.eclipse.swt.widgets.Display#asyncExec(Runnable)}. Relayouts requested by
+ * {@link Controls#relayout(ScrolledComposite)} run immediately.
+ * <p>
+ * The preferred sizes of the content are cached by size hint, so that resizing back and forth and resizing along a dimension not
+ * used as a hint do not measure the content tree again. Sizes are cached only across resizes of the scrolled composite: the cache is
+ * cleared when the content is resized on its own, as when its owner packs it after a change, and when the content is marked as
+ * changed by {@link Controls#relayout(ScrolledComposite)} or {@link Controls#invalidateScrolledComposite(ScrolledComposite)}.
+ * <p>
+ * The scheduler of a scrolled composite is stored in its data and must be used from the UI thread.
+ */
+final class ScrolledLayoutScheduler implements Listener, Runnable {
+
+    private static final String DATA_KEY = ScrolledLayoutScheduler.class.getName();
+
+    private static final int MAX_CACHED_SIZES = 8;
+
+    private final ScrolledComposite scrolledComposite;
+
+    private final Map<Long, Point> sizes = new LinkedHashMap<Long, Point>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Point> eldest) {
+            return size() > MAX_CACHED_SIZES;
+        }
+    };
+
+    private boolean installed;
+
+    private boolean useDefaultWidth = true;
+
+    private boolean useDefaultHeight = true;
+
+    private boolean updatePending;
+
+    /** The content whose resize events are listened to. */
+    private Control trackedContent;
+
+    /** Whether the minimum size is being set, resizing the content. */
+    private boolean updating;
+
+    private boolean scrolledCompositeResized;
+
+    private boolean contentResized;
+
+    private ScrolledLayoutScheduler(ScrolledComposite scrolledComposite) {
+        this.scrolledComposite = scrolledComposite;
+    }
+
+    /**
+     * Returns the scheduler of a scrolled composite, creating it if needed.
+     * 
+     * @param scrolledComposite
+     *            the scrolled composite.
+     * @return the scheduler.
+     */
+    static ScrolledLayoutScheduler get(ScrolledComposite scrolledComposite) {
+        ScrolledLayoutScheduler scheduler = (ScrolledLayoutScheduler) scrolledComposite.getData(DATA_KEY);
+        if (scheduler == null) {
+            scheduler = new ScrolledLayoutScheduler(scrolledComposite);
+            scrolledComposite.setData(DATA_KEY, scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Sets the minimum size of the scrolled composite to the preferred size of its content, and starts updating it when the scrolled
+     * composite is resized. Installing the scheduler again only changes the size hints.
+     * 
+     * @param useDefaultWidth
+     *            if true the minimum width is the default width of the content, otherwise the content is measured with the current
+     *            width of the scrolled composite as width hint.
+     * @param useDefaultHeight
+     *            if true the minimum height is the default height of the content, otherwise the content is measured with the current
+     *            height of the scrolled composite as height hint.
+     */
+    void install(boolean useDefaultWidth, boolean useDefaultHeight) {
+        this.useDefaultWidth = useDefaultWidth;
+        this.useDefaultHeight = useDefaultHeight;
+        trackContent();
+        setMinSize(computeContentSize(SWT.DEFAULT, SWT.DEFAULT));
+        if (!installed) {
+            installed = true;
+            scrolledComposite.addListener(SWT.Resize, this);
+        }
+    }
+
+    /**
+     * Clears the cached sizes of the content, measuring it again at the next update.
+     */
+    void invalidate() {
+        sizes.clear();
+    }
+
+    /**
+     * Clears the cached sizes, lays out the whole content and updates the minimum size of the scrolled composite.
+     */
+    void relayout() {
+        sizes.clear();
+        Composite content = Objects2.as(scrolledComposite.getContent(), Composite.class);
+        if (content != null) {
+            content.layout(true, true);
+        }
+        setMinSize(scrolledComposite.computeSize(SWT.DEFAULT, SWT.DEFAULT));
+        // workaround
+        Rectangle bounds = scrolledComposite.getBounds();
+        bounds.width += 2;
+        scrolledComposite.setBounds(bounds);
+        bounds.width -= 2;
+        scrolledComposite.setBounds(bounds);
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        if (event.widget == scrolledComposite) {
+            scrolledCompositeResized = true;
+        } else if (!updating) {
+            contentResized = true;
+        }
+        if (!updatePending && !scrolledComposite.isDisposed()) {
+            updatePending = true;
+            scrolledComposite.getDisplay().asyncExec(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        updatePending = false;
+        if (contentResized && !scrolledCompositeResized) {
+            sizes.clear();
+        }
+        contentResized = false;
+        scrolledCompositeResized = false;
+        if (!scrolledComposite.isDisposed() && (scrolledComposite.getContent() != null)) {
+            trackContent();
+            updateMinSize();
+        }
+    }
+
+    /** Listens to the resize events of the current content, which may have been replaced. */
+    private void trackContent() {
+        Control content = scrolledComposite.getContent();
+        if (content != trackedContent) {
+            if ((trackedContent != null) && !trackedContent.isDisposed()) {
+                trackedContent.removeListener(SWT.Resize, this);
+            }
+            trackedContent = content;
+            sizes.clear();
+            if (content != null) {
+                content.addListener(SWT.Resize, this);
+            }
+        }
+    }
+
+    private void setMinSize(Point size) {
+        updating = true;
+        try {
+            scrolledComposite.setMinSize(size);
+        } finally {
+            updating = false;
+        }
+    }
+
+    private void updateMinSize() {
+        Rectangle bounds = scrolledComposite.getBounds();
+        ScrollBar bar = scrolledComposite.getVerticalBar();
+        if (bar != null && !bar.isDisposed() && bar.isVisible()) {
+            bounds.width -= bar.getSize().x;
+        }
+        bar = scrolledComposite.getHorizontalBar();
+        if (bar != null && !bar.isDisposed() && bar.isVisible()) {
+            bounds.height -= bar.getSize().y;
+        }
+        Point size = computeContentSize(useDefaultWidth ? SWT.DEFAULT : bounds.width, useDefaultHeight ? SWT.DEFAULT : bounds.height);
+        Point minSize = new Point(scrolledComposite.getMinWidth(), scrolledComposite.getMinHeight());
+        if (!size.equals(minSize)) {
+            setMinSize(size);
+        }
+    }
+
+    private Point computeContentSize(int widthHint, int heightHint) {
+        Long key = ((long) widthHint << 32) | (heightHint & 0xFFFFFFFFL);
+        Point size = sizes.get(key);
+        if (size == null) {
+            Control content = scrolledComposite.getContent();
+            size = content.computeSize(widthHint, heightHint);
+            sizes.put(key, size);
+        }
+        return new Point(size.x, size.y);
+    }
+
+}
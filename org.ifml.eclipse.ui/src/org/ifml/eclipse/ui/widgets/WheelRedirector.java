@@ -0,0 +1,100 @@
+package org.ifml.eclipse.ui.widgets;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ScrolledComposite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.ScrollBar;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Scrolls a {@link ScrolledComposite} when the mouse wheel is used over one of its descendants.
+ * <p>
+ * The redirector is a display filter, registered once for each scrolled composite and direction and removed when the scrolled
+ * composite is disposed, so that descendants created later are covered and no listener is added to them. For each wheel event the
+ * filter walks the parents of the event control up to its shell: the event is redirected by the nearest scrolled composite with a
+ * redirector for the same direction.
+ */
+final class WheelRedirector implements Listener {
+
+    private static final String VERTICAL_DATA_KEY = WheelRedirector.class.getName() + ".vertical";
+
+    private static final String HORIZONTAL_DATA_KEY = WheelRedirector.class.getName() + ".horizontal";
+
+    private final ScrolledComposite scrolledComposite;
+
+    private final boolean vertical;
+
+    private WheelRedirector(ScrolledComposite scrolledComposite, boolean vertical) {
+        this.scrolledComposite = scrolledComposite;
+        this.vertical = vertical;
+    }
+
+    /**
+     * Installs a redirector on a scrolled composite. Does nothing if a redirector for the same direction is already installed.
+     * 
+     * @param scrolledComposite
+     *            the scrolled composite.
+     * @param vertical
+     *            if the vertical wheel scrolls the vertical bar, otherwise the horizontal wheel scrolls the horizontal bar.
+     */
+    static void install(ScrolledComposite scrolledComposite, boolean vertical) {
+        String dataKey = getDataKey(vertical);
+        if (scrolledComposite.getData(dataKey) != null) {
+            return;
+        }
+        final WheelRedirector redirector = new WheelRedirector(scrolledComposite, vertical);
+        scrolledComposite.setData(dataKey, redirector);
+        final Display display = scrolledComposite.getDisplay();
+        final int eventType = getEventType(vertical);
+        display.addFilter(eventType, redirector);
+        scrolledComposite.addListener(SWT.Dispose, new Listener() {
+            @Override
+            public void handleEvent(Event event) {
+                display.removeFilter(eventType, redirector);
+            }
+        });
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        if (!(event.widget instanceof Control) || scrolledComposite.isDisposed()) {
+            return;
+        }
+        Control control = (Control) event.widget;
+        if ((control == scrolledComposite) || control.isDisposed()) {
+            return;
+        }
+        String dataKey = getDataKey(vertical);
+        for (Control ancestor = control.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor == scrolledComposite) {
+                redirect(event);
+                return;
+            }
+            if ((ancestor instanceof Shell) || ((ancestor instanceof ScrolledComposite) && (ancestor.getData(dataKey) != null))) {
+                return; // not a descendant, or redirected by a nearer scrolled composite
+            }
+        }
+    }
+
+    private void redirect(Event event) {
+        ScrollBar bar = (vertical ? scrolledComposite.getVerticalBar() : scrolledComposite.getHorizontalBar());
+        if (bar != null && !bar.isDisposed()) {
+            bar.setSelection(bar.getSelection() - event.count * bar.getIncrement());
+            for (Listener listener : bar.getListeners(SWT.Selection)) {
+                listener.handleEvent(event); // redirect
+            }
+        }
+    }
+
+    private static String getDataKey(boolean vertical) {
+        return vertical ? VERTICAL_DATA_KEY : HORIZONTAL_DATA_KEY;
+    }
+
+    private static int getEventType(boolean vertical) {
+        return vertical ? SWT.MouseVerticalWheel : SWT.MouseHorizontalWheel;
+    }
+
+}